@@ -0,0 +1,61 @@
+package com.example.file.config;
+
+import org.springframework.core.MethodParameter;
+import org.springframework.stereotype.Component;
+import org.springframework.web.bind.support.WebDataBinderFactory;
+import org.springframework.web.context.request.NativeWebRequest;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.method.support.HandlerMethodArgumentResolver;
+import org.springframework.web.method.support.ModelAndViewContainer;
+
+import com.example.file.exception.InvalidRequestException;
+import com.example.file.exception.UserNotFoundException;
+import com.example.file.model.dto.AuthenticatedUser;
+import com.example.file.service.UserCache;
+import com.example.file.utils.JsonUtils;
+
+import lombok.RequiredArgsConstructor;
+
+/**
+ * Resolves {@link AuthenticatedUser} controller arguments from the {@code X-User}
+ * header set by the gateway after {@code auth_request}. The id in the header is
+ * trusted as-is; the users table is only consulted when an older gateway omits it.
+ * The parsed user is kept as a request attribute so it is decoded once per request.
+ */
+@Component
+@RequiredArgsConstructor
+public class AuthenticatedUserArgumentResolver implements HandlerMethodArgumentResolver {
+    public static final String USER_HEADER = "X-User";
+    private static final String ATTRIBUTE = AuthenticatedUser.class.getName();
+
+    private final UserCache userCache;
+
+    @Override
+    public boolean supportsParameter(MethodParameter parameter) {
+        return AuthenticatedUser.class.equals(parameter.getParameterType());
+    }
+
+    @Override
+    public Object resolveArgument(MethodParameter parameter, ModelAndViewContainer mavContainer,
+            NativeWebRequest webRequest, WebDataBinderFactory binderFactory) {
+        Object cached = webRequest.getAttribute(ATTRIBUTE, RequestAttributes.SCOPE_REQUEST);
+        if (cached instanceof AuthenticatedUser user) {
+            return user;
+        }
+
+        String header = webRequest.getHeader(USER_HEADER);
+        if (header == null || header.isBlank()) {
+            throw new InvalidRequestException("Missing " + USER_HEADER + " header");
+        }
+
+        AuthenticatedUser user = JsonUtils.fromJson(header, AuthenticatedUser.class);
+        if (user.getId() == null) {
+            user.setId(userCache.findByEmail(user.getEmail())
+                    .orElseThrow(() -> new UserNotFoundException("User not found"))
+                    .getId());
+        }
+
+        webRequest.setAttribute(ATTRIBUTE, user, RequestAttributes.SCOPE_REQUEST);
+        return user;
+    }
+}
@@ -1,7 +1,10 @@
 package com.example.file.config;
 
+import org.springdoc.core.utils.SpringDocUtils;
 import org.springframework.context.annotation.Configuration;
 
+import com.example.file.model.dto.AuthenticatedUser;
+
 import io.swagger.v3.oas.annotations.OpenAPIDefinition;
 import io.swagger.v3.oas.annotations.enums.SecuritySchemeType;
 import io.swagger.v3.oas.annotations.info.Info;
@@ -13,5 +16,9 @@ import io.swagger.v3.oas.annotations.security.SecurityScheme;
                 @SecurityRequirement(name = "bearerAuth") })
 @SecurityScheme(name = "bearerAuth", type = SecuritySchemeType.HTTP, scheme = "bearer", bearerFormat = "JWT")
 public class SwaggerConfig {
+        static {
+                // Resolved from the gateway's X-User header, not a client-supplied parameter
+                SpringDocUtils.getConfig().addRequestWrapperToIgnore(AuthenticatedUser.class);
+        }
 }
 
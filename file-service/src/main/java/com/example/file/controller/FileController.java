@@ -1,5 +1,7 @@
 package com.example.file.controller;
 
+import java.io.InputStream;
+import java.time.Instant;
 import java.util.List;
 import java.util.UUID;
 
@@ -11,13 +13,26 @@ import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import com.example.file.model.dto.AuthenticatedUser;
+import com.example.file.model.dto.BatchCompleteRequest;
+import com.example.file.model.dto.BatchCompleteResult;
+import com.example.file.model.dto.BatchDeleteRequest;
+import com.example.file.model.dto.BatchDeleteResult;
+import com.example.file.model.dto.BatchPresignResult;
 import com.example.file.model.dto.CompleteUploadRequest;
+import com.example.file.exception.InvalidRequestException;
+import com.example.file.model.dto.FileDownload;
+import com.example.file.model.dto.FileListQuery;
+import com.example.file.model.dto.FilePageResponse;
 import com.example.file.model.dto.FileResponseDto;
+import com.example.file.model.dto.MultipartUploadResponse;
 import com.example.file.model.dto.PresignedUrlRequest;
 import com.example.file.model.dto.PresignedUrlResponse;
-import com.example.file.repository.FileMetadataRepository;
+import com.example.file.model.enums.FileSortField;
 import com.example.file.service.FileService;
 import com.google.common.net.HttpHeaders;
 
@@ -28,28 +43,98 @@ import lombok.RequiredArgsConstructor;
 @RequiredArgsConstructor
 public class FileController {
     private final FileService fileService;
-    private final FileMetadataRepository fileMetadataRepository;
+
+    private static final int DOWNLOAD_BUFFER_SIZE = 64 * 1024;
 
     @PostMapping("/upload")
     public ResponseEntity<PresignedUrlResponse> signUpload(
             @RequestBody PresignedUrlRequest req,
-            @RequestHeader("X-User") String userHeader) {
+            AuthenticatedUser user) {
 
         return ResponseEntity.ok(
-                fileService.generatePresignedUrl(req.filename(), req.contentType(), req.size(), userHeader));
+                fileService.generatePresignedUrl(req.filename(), req.contentType(), req.size(), req.sha256(),
+                        user));
+    }
+
+    @PostMapping("/upload/batch")
+    public ResponseEntity<List<BatchPresignResult>> signUploads(
+            @RequestBody List<PresignedUrlRequest> requests,
+            AuthenticatedUser user) {
+
+        return ResponseEntity.ok(fileService.generatePresignedUrls(requests, user));
+    }
+
+    @PostMapping("/upload/multipart")
+    public ResponseEntity<MultipartUploadResponse> startMultipartUpload(
+            @RequestBody PresignedUrlRequest req,
+            AuthenticatedUser user) {
+
+        return ResponseEntity.ok(fileService.initiateMultipartUpload(req, user));
+    }
+
+    @GetMapping("/upload/multipart")
+    public ResponseEntity<MultipartUploadResponse> resumeMultipartUpload(
+            @RequestParam String objectKey,
+            AuthenticatedUser user) {
+
+        return ResponseEntity.ok(fileService.resumeMultipartUpload(objectKey, user));
+    }
+
+    @PostMapping("/upload/multipart/complete")
+    public ResponseEntity<FileResponseDto> completeMultipartUpload(
+            @RequestBody CompleteUploadRequest req,
+            AuthenticatedUser user) {
+
+        return ResponseEntity.ok(fileService.completeMultipartUpload(req.objectKey(), user));
+    }
+
+    @DeleteMapping("/upload/multipart")
+    public ResponseEntity<Void> abortMultipartUpload(
+            @RequestParam String objectKey,
+            AuthenticatedUser user) {
+
+        fileService.abortMultipartUpload(objectKey, user);
+        return ResponseEntity.noContent().build();
     }
 
     @PostMapping("/complete")
     public ResponseEntity<FileResponseDto> completeUpload(
             @RequestBody CompleteUploadRequest req,
-            @RequestHeader("X-User") String userHeader) {
+            AuthenticatedUser user) {
+
+        return ResponseEntity.ok(fileService.completeUpload(req.objectKey(), user));
+    }
+
+    @PostMapping("/complete/batch")
+    public ResponseEntity<List<BatchCompleteResult>> completeUploads(
+            @RequestBody BatchCompleteRequest req,
+            AuthenticatedUser user) {
 
-        return ResponseEntity.ok(fileService.completeUpload(req.objectKey(), userHeader));
+        return ResponseEntity.ok(fileService.completeUploads(req.objectKeys(), user));
     }
 
     @GetMapping({ "", "/" })
-    public ResponseEntity<List<FileResponseDto>> listFiles(@RequestHeader("X-User") String userHeader) {
-        return ResponseEntity.ok(fileService.listFiles(userHeader));
+    public ResponseEntity<FilePageResponse> listFiles(
+            AuthenticatedUser user,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "50") int limit,
+            @RequestParam(defaultValue = "created") String sort,
+            @RequestParam(defaultValue = "desc") String order,
+            @RequestParam(required = false) String mimeType,
+            @RequestParam(required = false) String fileStatus,
+            @RequestParam(required = false) String q,
+            @RequestParam(required = false) Instant modifiedSince) {
+
+        FileSortField sortField;
+        try {
+            sortField = FileSortField.from(sort);
+        } catch (IllegalArgumentException e) {
+            throw new InvalidRequestException("Unsupported sort: " + sort);
+        }
+
+        FileListQuery query = new FileListQuery(cursor, limit, sortField, !"asc".equalsIgnoreCase(order),
+                mimeType, fileStatus, q, modifiedSince);
+        return ResponseEntity.ok(fileService.listFiles(user, query));
     }
 
     @GetMapping("/{fileId}")
@@ -58,21 +143,48 @@ public class FileController {
     }
 
     @GetMapping("/download/{fileId}")
-    public ResponseEntity<byte[]> download(@PathVariable UUID fileId) {
-        byte[] data = fileService.downloadFile(fileId);
+    public ResponseEntity<StreamingResponseBody> download(
+            @PathVariable UUID fileId,
+            @RequestHeader(value = HttpHeaders.RANGE, required = false) String range,
+            @RequestHeader(value = HttpHeaders.IF_RANGE, required = false) String ifRange) {
+        FileDownload download = fileService.downloadFile(fileId, range, ifRange);
 
-        // Get original filename
-        String filename = fileMetadataRepository.findFilenameById(fileId);
+        StreamingResponseBody body = out -> {
+            try (InputStream in = download.content().open()) {
+                byte[] buffer = new byte[DOWNLOAD_BUFFER_SIZE];
+                int read;
+                while ((read = in.read(buffer)) != -1) {
+                    out.write(buffer, 0, read);
+                }
+            }
+        };
 
-        return ResponseEntity.ok()
-                .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"" + filename + "\"")
+        ResponseEntity.BodyBuilder response = ResponseEntity.status(download.partial() ? 206 : 200)
+                .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"" + download.filename() + "\"")
                 .header(HttpHeaders.CONTENT_TYPE, "application/octet-stream")
-                .body(data);
+                .header(HttpHeaders.ACCEPT_RANGES, "bytes")
+                .header(HttpHeaders.ETAG, download.etag())
+                .contentLength(download.rangeLength());
+
+        if (download.partial()) {
+            response.header(HttpHeaders.CONTENT_RANGE,
+                    "bytes " + download.rangeStart() + "-" + download.rangeEnd() + "/" + download.totalSize());
+        }
+
+        return response.body(body);
+    }
+
+    @PostMapping("/delete/batch")
+    public ResponseEntity<List<BatchDeleteResult>> deleteFiles(
+            @RequestBody BatchDeleteRequest req,
+            AuthenticatedUser user) {
+
+        return ResponseEntity.ok(fileService.deleteFiles(req.fileIds(), user));
     }
 
     @DeleteMapping("/{fileId}")
-    public ResponseEntity<Void> delete(@PathVariable UUID fileId, @RequestHeader("X-User") String userHeader) {
-        fileService.deleteFile(fileId, userHeader);
+    public ResponseEntity<Void> delete(@PathVariable UUID fileId, AuthenticatedUser user) {
+        fileService.deleteFile(fileId, user);
         return ResponseEntity.noContent().build();
     }
 }
@@ -3,7 +3,9 @@ package com.example.file.controller;
 import java.util.UUID;
 
 import org.springframework.http.HttpHeaders;
+import org.springframework.http.ResponseCookie;
 import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.CookieValue;
 import org.springframework.web.bind.annotation.DeleteMapping;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
@@ -15,8 +17,11 @@ import org.springframework.web.bind.annotation.RestController;
 
 import com.example.file.model.dto.LinkRequest;
 import com.example.file.model.dto.LinkResponse;
+import com.example.file.service.LinkAttemptLimiter;
+import com.example.file.service.LinkGrantService;
 import com.example.file.service.LinkService;
 
+import jakarta.servlet.http.HttpServletRequest;
 import lombok.RequiredArgsConstructor;
 
 @RestController
@@ -24,6 +29,11 @@ import lombok.RequiredArgsConstructor;
 @RequiredArgsConstructor
 public class LinkController {
     private final LinkService linkService;
+    private final LinkGrantService linkGrantService;
+    private final LinkAttemptLimiter linkAttemptLimiter;
+
+    private static final String GRANT_COOKIE = "link_grant";
+    private static final String GRANT_HEADER = "X-Link-Grant";
 
     @PostMapping("/generate")
     public ResponseEntity<LinkResponse> createLink(
@@ -34,21 +44,50 @@ public class LinkController {
     @GetMapping("/{token}")
     public ResponseEntity<?> accessLink(
             @PathVariable String token,
-            @RequestParam(required = false) String password
+            @RequestParam(required = false) String password,
+            @RequestParam(name = "grant", required = false) String grantParam,
+            @CookieValue(name = GRANT_COOKIE, required = false) String grantCookie,
+            HttpServletRequest request
     ) {
-        var result = linkService.accessFile(token, password);
+        String grant = grantParam != null ? grantParam : grantCookie;
+        var result = linkService.accessFile(token, password, grant, clientIp(request));
 
         if (result.isExpired()) {
             return ResponseEntity.status(410).body("Link expired");
         }
 
+        if (result.isThrottled()) {
+            return ResponseEntity.status(429)
+                    .header(HttpHeaders.RETRY_AFTER, String.valueOf(linkAttemptLimiter.getWindow().toSeconds()))
+                    .body("Too many attempts");
+        }
+
         if (result.isInvalidPassword()) {
             return ResponseEntity.status(401).body("Invalid password");
         }
 
-        return ResponseEntity.status(302)
-                .header(HttpHeaders.LOCATION, result.redirectUrl())
-                .build();
+        ResponseEntity.BodyBuilder response = ResponseEntity.status(302)
+                .header(HttpHeaders.LOCATION, result.redirectUrl());
+
+        if (result.grant() != null) {
+            ResponseCookie cookie = ResponseCookie.from(GRANT_COOKIE, result.grant())
+                    .path("/api/links/" + token)
+                    .maxAge(linkGrantService.getTtl())
+                    .httpOnly(true)
+                    .secure(true)
+                    .sameSite("Lax")
+                    .build();
+            response.header(HttpHeaders.SET_COOKIE, cookie.toString())
+                    .header(GRANT_HEADER, result.grant());
+        }
+
+        return response.build();
+    }
+
+    private static String clientIp(HttpServletRequest request) {
+        // Set by the gateway; the socket address is only the proxy
+        String realIp = request.getHeader("X-Real-IP");
+        return realIp != null && !realIp.isBlank() ? realIp : request.getRemoteAddr();
     }
 
     @DeleteMapping("/delete/{linkId}")
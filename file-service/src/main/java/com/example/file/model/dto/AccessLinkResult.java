@@ -4,17 +4,23 @@ public record AccessLinkResult(
         boolean success,
         boolean isExpired,
         boolean isInvalidPassword,
-        String redirectUrl
+        boolean isThrottled,
+        String redirectUrl,
+        String grant
 ) {
     public static AccessLinkResult success(String url) {
-        return new AccessLinkResult(true, false, false, url);
+        return new AccessLinkResult(true, false, false, false, url, null);
+    }
+    public static AccessLinkResult success(String url, String grant) {
+        return new AccessLinkResult(true, false, false, false, url, grant);
     }
     public static AccessLinkResult expired() {
-        return new AccessLinkResult(false, true, false, null);
+        return new AccessLinkResult(false, true, false, false, null, null);
     }
     public static AccessLinkResult invalidPassword() {
-        return new AccessLinkResult(false, false, true, null);
+        return new AccessLinkResult(false, false, true, false, null, null);
+    }
+    public static AccessLinkResult throttled() {
+        return new AccessLinkResult(false, false, false, true, null, null);
     }
 }
-
-
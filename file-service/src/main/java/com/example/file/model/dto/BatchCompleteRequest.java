@@ -0,0 +1,6 @@
+package com.example.file.model.dto;
+
+import java.util.List;
+
+public record BatchCompleteRequest(List<String> objectKeys) {
+}
@@ -0,0 +1,18 @@
+package com.example.file.model.dto;
+
+import java.util.UUID;
+
+public record BatchCompleteResult(
+        String objectKey,
+        UUID fileId,
+        String status,
+        String error
+) {
+    public static BatchCompleteResult success(String objectKey, UUID fileId, String status) {
+        return new BatchCompleteResult(objectKey, fileId, status, null);
+    }
+
+    public static BatchCompleteResult failure(String objectKey, String error) {
+        return new BatchCompleteResult(objectKey, null, null, error);
+    }
+}
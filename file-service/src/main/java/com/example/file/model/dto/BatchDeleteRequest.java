@@ -0,0 +1,7 @@
+package com.example.file.model.dto;
+
+import java.util.List;
+import java.util.UUID;
+
+public record BatchDeleteRequest(List<UUID> fileIds) {
+}
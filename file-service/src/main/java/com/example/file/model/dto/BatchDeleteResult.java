@@ -0,0 +1,17 @@
+package com.example.file.model.dto;
+
+import java.util.UUID;
+
+public record BatchDeleteResult(
+        UUID fileId,
+        boolean deleted,
+        String error
+) {
+    public static BatchDeleteResult success(UUID fileId) {
+        return new BatchDeleteResult(fileId, true, null);
+    }
+
+    public static BatchDeleteResult failure(UUID fileId, String error) {
+        return new BatchDeleteResult(fileId, false, error);
+    }
+}
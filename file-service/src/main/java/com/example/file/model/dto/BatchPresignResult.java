@@ -0,0 +1,17 @@
+package com.example.file.model.dto;
+
+public record BatchPresignResult(
+        int index,
+        String filename,
+        String objectKey,
+        String presignedUrl,
+        String error
+) {
+    public static BatchPresignResult success(int index, String filename, String objectKey, String presignedUrl) {
+        return new BatchPresignResult(index, filename, objectKey, presignedUrl, null);
+    }
+
+    public static BatchPresignResult failure(int index, String filename, String error) {
+        return new BatchPresignResult(index, filename, null, null, error);
+    }
+}
@@ -0,0 +1,6 @@
+package com.example.file.model.dto;
+
+public record CachedFileDto(
+        long version,
+        FileResponseDto dto
+) {}
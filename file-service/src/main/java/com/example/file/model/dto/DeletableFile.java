@@ -0,0 +1,19 @@
+package com.example.file.model.dto;
+
+import java.util.UUID;
+
+public record DeletableFile(
+        UUID id,
+        String objectKey,
+        String storageKey,
+        String contentHash,
+        String linkToken
+) {
+    public boolean holdsReference() {
+        return storageKey != null;
+    }
+
+    public String storedKey() {
+        return storageKey != null ? storageKey : objectKey;
+    }
+}
@@ -0,0 +1,28 @@
+package com.example.file.model.dto;
+
+import java.io.IOException;
+import java.io.InputStream;
+
+/**
+ * Headers for a download plus a way to open its content. The stream is opened by
+ * whoever writes the body, so nothing holds a storage connection until then.
+ */
+public record FileDownload(
+        String filename,
+        String contentType,
+        String etag,
+        long totalSize,
+        long rangeStart,
+        long rangeLength,
+        boolean partial,
+        Content content
+) {
+    public long rangeEnd() {
+        return rangeStart + rangeLength - 1;
+    }
+
+    @FunctionalInterface
+    public interface Content {
+        InputStream open() throws IOException;
+    }
+}
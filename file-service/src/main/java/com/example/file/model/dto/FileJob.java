@@ -16,4 +16,5 @@ public class FileJob {
     private String objectKey;
     private String mimeType;
     private JobType jobType;
+    private Long size;
 }
@@ -0,0 +1,16 @@
+package com.example.file.model.dto;
+
+import java.time.Instant;
+
+import com.example.file.model.enums.FileSortField;
+
+public record FileListQuery(
+        String cursor,
+        int limit,
+        FileSortField sort,
+        boolean descending,
+        String mimeType,
+        String fileStatus,
+        String name,
+        Instant modifiedSince
+) {}
@@ -0,0 +1,9 @@
+package com.example.file.model.dto;
+
+import java.util.List;
+
+public record FilePageResponse(
+        List<FileResponseDto> items,
+        String nextCursor,
+        boolean hasMore
+) {}
@@ -13,4 +13,8 @@ public record FileResponseDto(
     Instant updatedAt,
     Map<String, String> variants,
     ShareLinkDto share
-) {}
+) {
+    public FileResponseDto withShare(ShareLinkDto share) {
+        return new FileResponseDto(id, name, type, size, createdAt, updatedAt, variants, share);
+    }
+}
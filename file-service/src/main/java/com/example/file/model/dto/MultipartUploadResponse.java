@@ -0,0 +1,13 @@
+package com.example.file.model.dto;
+
+import java.util.List;
+
+public record MultipartUploadResponse(
+        String objectKey,
+        String uploadId,
+        long partSize,
+        int partCount,
+        List<Integer> uploadedParts,
+        List<PresignedPart> parts
+) {
+}
@@ -0,0 +1,10 @@
+package com.example.file.model.dto;
+
+import java.util.UUID;
+
+public record PendingMultipartUpload(
+        UUID fileId,
+        String objectKey,
+        String uploadId,
+        String linkToken
+) {}
@@ -0,0 +1,4 @@
+package com.example.file.model.dto;
+
+public record PresignedPart(int partNumber, String url) {
+}
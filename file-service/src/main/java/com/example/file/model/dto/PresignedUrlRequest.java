@@ -1,4 +1,8 @@
 package com.example.file.model.dto;
 
-public record PresignedUrlRequest(String filename, String contentType,Long size) {
+/**
+ * {@code sha256} is optional; when given, the client must send it as the
+ * {@code x-amz-checksum-sha256} header on the upload so storage can verify it.
+ */
+public record PresignedUrlRequest(String filename, String contentType, Long size, String sha256) {
 }
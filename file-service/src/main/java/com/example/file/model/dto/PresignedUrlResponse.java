@@ -10,4 +10,6 @@ import lombok.NoArgsConstructor;
 public class PresignedUrlResponse {
     private String objectKey;
     private String presignedUrl;
+    // True when identical content was already stored; no upload or completion is needed
+    private boolean deduplicated;
 }
@@ -0,0 +1,16 @@
+package com.example.file.model.dto;
+
+import java.time.Instant;
+import java.util.UUID;
+
+public record ResolvedLink(
+        UUID linkId,
+        UUID fileId,
+        String fileUrl,
+        Instant expiresAt,
+        String passwordHash
+) {
+    public boolean hasPassword() {
+        return passwordHash != null;
+    }
+}
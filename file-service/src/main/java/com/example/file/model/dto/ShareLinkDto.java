@@ -7,5 +7,10 @@ public record ShareLinkDto(
         UUID id,
         String url,
         Instant expiresAt,
-        boolean hasPassword
-) {}
+        boolean hasPassword,
+        long viewCount
+) {
+    public ShareLinkDto withViewCount(long viewCount) {
+        return new ShareLinkDto(id, url, expiresAt, hasPassword, viewCount);
+    }
+}
@@ -0,0 +1,9 @@
+package com.example.file.model.dto;
+
+import java.util.UUID;
+
+public record VariantUrlView(
+        UUID fileId,
+        String variantKey,
+        String url
+) {}
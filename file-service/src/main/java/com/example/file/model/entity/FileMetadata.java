@@ -15,6 +15,7 @@ import jakarta.persistence.FetchType;
 import jakarta.persistence.GeneratedValue;
 import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
+import jakarta.persistence.Index;
 import jakarta.persistence.JoinColumn;
 import jakarta.persistence.ManyToOne;
 import jakarta.persistence.OneToMany;
@@ -28,7 +29,13 @@ import lombok.NoArgsConstructor;
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
-@Table(name = "files")
+@Table(name = "files", indexes = {
+        @Index(name = "idx_files_owner_created", columnList = "user_id, created_at, id"),
+        @Index(name = "idx_files_owner_size", columnList = "user_id, size, id"),
+        @Index(name = "idx_files_owner_name", columnList = "user_id, filename, id"),
+        @Index(name = "idx_files_upload_id", columnList = "upload_id, created_at"),
+        @Index(name = "idx_files_content_hash", columnList = "content_hash, file_status")
+})
 public class FileMetadata {
     @Id
     @GeneratedValue(strategy = GenerationType.UUID)
@@ -52,6 +59,18 @@ public class FileMetadata {
     @Column(name = "file_status", nullable = false)
     private String fileStatus;
 
+    // Set while a multipart upload is open; cleared once the parts are assembled
+    @Column(name = "upload_id")
+    private String uploadId;
+
+    // SHA-256 of the content, hex encoded; only a claim until the upload is confirmed
+    @Column(name = "content_hash", length = 64)
+    private String contentHash;
+
+    // Where the bytes live once the file holds a reference on a stored object
+    @Column(name = "storage_key")
+    private String storageKey;
+
     @ManyToOne(fetch = FetchType.LAZY, optional = false)
     @JoinColumn(name = "user_id", nullable = false)
     private User owner;
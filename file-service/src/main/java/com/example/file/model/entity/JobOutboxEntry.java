@@ -0,0 +1,71 @@
+package com.example.file.model.entity;
+
+import java.time.Instant;
+import java.util.UUID;
+
+import org.hibernate.annotations.CreationTimestamp;
+
+import com.example.file.model.dto.FileJob;
+import com.example.file.model.enums.JobType;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.EnumType;
+import jakarta.persistence.Enumerated;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.GenerationType;
+import jakarta.persistence.Id;
+import jakarta.persistence.Index;
+import jakarta.persistence.Table;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * A processing job committed together with the upload that produced it and not
+ * yet handed to the workers.
+ */
+@Entity
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Table(name = "job_outbox", indexes = {
+        @Index(name = "idx_job_outbox_created", columnList = "created_at")
+})
+public class JobOutboxEntry {
+    @Id
+    @GeneratedValue(strategy = GenerationType.UUID)
+    private UUID id;
+
+    @Column(name = "file_id", nullable = false)
+    private UUID fileId;
+
+    @Column(name = "object_key", nullable = false, length = 1024)
+    private String objectKey;
+
+    @Column(name = "mime_type", nullable = false)
+    private String mimeType;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "job_type", nullable = false)
+    private JobType jobType;
+
+    @Column(name = "size")
+    private Long size;
+
+    @CreationTimestamp
+    @Column(name = "created_at", nullable = false, updatable = false)
+    private Instant createdAt;
+
+    public JobOutboxEntry(FileJob job) {
+        this.fileId = job.getFileId();
+        this.objectKey = job.getObjectKey();
+        this.mimeType = job.getMimeType();
+        this.jobType = job.getJobType();
+        this.size = job.getSize();
+    }
+
+    public FileJob toJob() {
+        return new FileJob(fileId, objectKey, mimeType, jobType, size);
+    }
+}
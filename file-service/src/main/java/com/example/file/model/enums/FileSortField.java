@@ -0,0 +1,23 @@
+package com.example.file.model.enums;
+
+import java.util.Locale;
+
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+
+@Getter
+@RequiredArgsConstructor
+public enum FileSortField {
+    CREATED("createdAt"),
+    SIZE("size"),
+    NAME("filename");
+
+    private final String attribute;
+
+    public static FileSortField from(String value) {
+        if (value == null || value.isBlank()) {
+            return CREATED;
+        }
+        return FileSortField.valueOf(value.trim().toUpperCase(Locale.ROOT));
+    }
+}
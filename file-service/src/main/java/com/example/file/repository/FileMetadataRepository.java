@@ -1,21 +1,70 @@
 package com.example.file.repository;
 
+import java.time.Instant;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
 
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import com.example.file.model.dto.DeletableFile;
+import com.example.file.model.dto.PendingMultipartUpload;
 import com.example.file.model.entity.FileMetadata;
-import com.example.file.model.entity.User;
+
+import jakarta.persistence.LockModeType;
 
 @Repository
-public interface FileMetadataRepository extends JpaRepository<FileMetadata, UUID> {
+public interface FileMetadataRepository extends JpaRepository<FileMetadata, UUID>,
+        JpaSpecificationExecutor<FileMetadata> {
     @Query("SELECT f.filename FROM FileMetadata f WHERE f.id = :id")
     String findFilenameById(@Param("id") UUID id);
-    List<FileMetadata> findByOwner(User owner);
     Optional<FileMetadata> findByObjectKey(String objectKey);
+
+    Optional<FileMetadata> findFirstByContentHashAndFileStatusAndStorageKeyIsNotNull(String contentHash,
+            String fileStatus);
+
+    Optional<FileMetadata> findFirstByOwnerIdAndContentHashAndFileStatusAndStorageKeyIsNotNull(UUID ownerId,
+            String contentHash, String fileStatus);
+
+    @Query("SELECT f FROM FileMetadata f LEFT JOIN FETCH f.link "
+            + "WHERE f.objectKey IN :objectKeys AND f.owner.id = :ownerId")
+    List<FileMetadata> findOwnedByObjectKeys(@Param("objectKeys") Collection<String> objectKeys,
+            @Param("ownerId") UUID ownerId);
+
+    @Query("SELECT new com.example.file.model.dto.PendingMultipartUpload(f.id, f.objectKey, f.uploadId, l.token) "
+            + "FROM FileMetadata f LEFT JOIN f.link l "
+            + "WHERE f.uploadId IS NOT NULL AND f.createdAt < :cutoff ORDER BY f.createdAt")
+    List<PendingMultipartUpload> findStaleMultipartUploads(@Param("cutoff") Instant cutoff, Limit limit);
+
+    @Query("SELECT new com.example.file.model.dto.DeletableFile(f.id, f.objectKey, f.storageKey, f.contentHash, l.token) "
+            + "FROM FileMetadata f LEFT JOIN f.link l WHERE f.id IN :ids AND f.owner.id = :ownerId")
+    List<DeletableFile> findDeletable(@Param("ids") Collection<UUID> ids, @Param("ownerId") UUID ownerId);
+
+    @Modifying
+    @Query("DELETE FROM FileMetadata f WHERE f.id IN :ids")
+    int deleteByIds(@Param("ids") Collection<UUID> ids);
+
+    // Row-locks the files still in the given status; a concurrent confirm waits here and then finds none
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT f.id FROM FileMetadata f WHERE f.id IN :ids AND f.fileStatus = :status")
+    List<UUID> lockInStatus(@Param("ids") Collection<UUID> ids, @Param("status") String status);
+
+    // Only moves files still in :uploaded; a count below ids.size() means some were confirmed elsewhere
+    @Modifying
+    @Query("UPDATE FileMetadata f SET f.fileStatus = CASE WHEN f.id IN :processingIds THEN :processing "
+            + "ELSE :completed END, f.updatedAt = :now WHERE f.id IN :ids AND f.fileStatus = :uploaded")
+    int confirmUploads(@Param("ids") Collection<UUID> ids,
+            @Param("processingIds") Collection<UUID> processingIds,
+            @Param("uploaded") String uploaded,
+            @Param("processing") String processing,
+            @Param("completed") String completed,
+            @Param("now") Instant now);
 }
@@ -0,0 +1,102 @@
+package com.example.file.repository;
+
+import java.time.Instant;
+import java.util.Locale;
+import java.util.UUID;
+
+import org.springframework.data.jpa.domain.Specification;
+
+import com.example.file.model.entity.FileMetadata;
+import com.example.file.utils.CursorUtils;
+
+import jakarta.persistence.criteria.Expression;
+import jakarta.persistence.criteria.JoinType;
+
+public final class FileMetadataSpecifications {
+
+    private FileMetadataSpecifications() {
+    }
+
+    public static Specification<FileMetadata> ownedBy(UUID ownerId) {
+        return (root, query, cb) -> cb.equal(root.get("owner").get("id"), ownerId);
+    }
+
+    /**
+     * Fetch the share link in the same statement. The inverse one-to-one cannot be
+     * proxied, so without this Hibernate issues one extra select per row.
+     */
+    public static Specification<FileMetadata> fetchLink() {
+        return (root, query, cb) -> {
+            if (query != null && query.getResultType() != Long.class) {
+                root.fetch("link", JoinType.LEFT);
+            }
+            return null;
+        };
+    }
+
+    /** Accepts an exact type ({@code image/png}) or a family ({@code image}, {@code image/*}). */
+    public static Specification<FileMetadata> mimeType(String mimeType) {
+        if (mimeType == null || mimeType.isBlank()) {
+            return null;
+        }
+        String value = mimeType.trim().toLowerCase(Locale.ROOT);
+        if (value.contains("/") && !value.endsWith("/*")) {
+            return (root, query, cb) -> cb.equal(root.get("mimeType"), value);
+        }
+        String family = value.endsWith("/*") ? value.substring(0, value.length() - 1) : value + "/";
+        return (root, query, cb) -> cb.like(root.get("mimeType"), family + "%");
+    }
+
+    public static Specification<FileMetadata> fileStatus(String fileStatus) {
+        if (fileStatus == null || fileStatus.isBlank()) {
+            return null;
+        }
+        String value = fileStatus.trim().toUpperCase(Locale.ROOT);
+        return (root, query, cb) -> cb.equal(root.get("fileStatus"), value);
+    }
+
+    /** Case-insensitive substring match on the filename; {@code %} and {@code _} match literally. */
+    public static Specification<FileMetadata> nameContains(String name) {
+        if (name == null || name.isBlank()) {
+            return null;
+        }
+        String pattern = "%" + name.trim().toLowerCase(Locale.ROOT)
+                .replace("\\", "\\\\")
+                .replace("%", "\\%")
+                .replace("_", "\\_") + "%";
+        return (root, query, cb) -> cb.like(cb.lower(root.get("filename")), pattern, '\\');
+    }
+
+    /** Rows last modified, or created if never modified, at or after {@code since}. */
+    public static Specification<FileMetadata> modifiedSince(Instant since) {
+        if (since == null) {
+            return null;
+        }
+        return (root, query, cb) -> cb.greaterThanOrEqualTo(
+                cb.coalesce(root.<Instant>get("updatedAt"), root.<Instant>get("createdAt")), since);
+    }
+
+    /**
+     * Keyset predicate: rows strictly after the cursor in {@code (sortColumn, id)} order.
+     */
+    @SuppressWarnings({ "unchecked", "rawtypes" })
+    public static Specification<FileMetadata> after(CursorUtils.Cursor cursor, boolean descending) {
+        if (cursor == null) {
+            return null;
+        }
+        return (root, query, cb) -> {
+            Expression<Comparable> column = root.get(cursor.sort().getAttribute());
+            Expression<UUID> id = root.get("id");
+            Comparable value = cursor.value();
+
+            if (descending) {
+                return cb.or(
+                        cb.lessThan(column, value),
+                        cb.and(cb.equal(column, value), cb.lessThan(id, cursor.id())));
+            }
+            return cb.or(
+                    cb.greaterThan(column, value),
+                    cb.and(cb.equal(column, value), cb.greaterThan(id, cursor.id())));
+        };
+    }
+}
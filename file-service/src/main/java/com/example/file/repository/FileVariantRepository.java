@@ -1,15 +1,28 @@
 package com.example.file.repository;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.UUID;
 
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import com.example.file.model.dto.VariantUrlView;
 import com.example.file.model.entity.FileVariant;
 
 @Repository
 public interface FileVariantRepository extends JpaRepository<FileVariant, UUID> {
 
     List<FileVariant> findByFileId(UUID fileId);
+
+    @Query("SELECT new com.example.file.model.dto.VariantUrlView(v.file.id, v.variantKey, v.url) "
+            + "FROM FileVariant v WHERE v.file.id IN :fileIds")
+    List<VariantUrlView> findUrlsByFileIds(@Param("fileIds") Collection<UUID> fileIds);
+
+    @Modifying
+    @Query("DELETE FROM FileVariant v WHERE v.file.id IN :fileIds")
+    int deleteByFileIds(@Param("fileIds") Collection<UUID> fileIds);
 }
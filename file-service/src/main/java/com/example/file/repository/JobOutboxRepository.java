@@ -0,0 +1,16 @@
+package com.example.file.repository;
+
+import java.util.List;
+import java.util.UUID;
+
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import com.example.file.model.entity.JobOutboxEntry;
+
+@Repository
+public interface JobOutboxRepository extends JpaRepository<JobOutboxEntry, UUID> {
+
+    List<JobOutboxEntry> findAllByOrderByCreatedAt(Limit limit);
+}
@@ -1,9 +1,13 @@
 package com.example.file.repository;
 
+import java.util.Collection;
 import java.util.Optional;
 import java.util.UUID;
 
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import com.example.file.model.entity.Link;
@@ -12,4 +16,11 @@ import com.example.file.model.entity.Link;
 public interface LinkRepository extends JpaRepository<Link, UUID> {
     Link findByFileId(UUID fileId);
     Optional<Link> findByToken(String token);
+
+    @Modifying
+    @Query("DELETE FROM Link l WHERE l.file.id IN :fileIds")
+    int deleteByFileIds(@Param("fileIds") Collection<UUID> fileIds);
+
+    @Query("SELECT l FROM Link l JOIN FETCH l.file WHERE l.token = :token")
+    Optional<Link> findByTokenWithFile(@Param("token") String token);
 }
@@ -0,0 +1,17 @@
+package com.example.file.repository;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.UUID;
+
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import com.example.file.model.entity.ObjectTombstone;
+
+@Repository
+public interface ObjectTombstoneRepository extends JpaRepository<ObjectTombstone, UUID> {
+
+    List<ObjectTombstone> findByNextAttemptAtLessThanEqualOrderByNextAttemptAt(Instant now, Limit limit);
+}
@@ -0,0 +1,58 @@
+package com.example.file.repository;
+
+import java.time.Instant;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import com.example.file.model.entity.StoredObject;
+
+@Repository
+public interface StoredObjectRepository extends JpaRepository<StoredObject, String> {
+
+    // Concurrent first uploads of the same content race here; exactly one key wins
+    @Modifying
+    @Query(value = "INSERT INTO stored_objects (content_hash, object_key, size, ref_count, created_at) "
+            + "VALUES (:hash, :objectKey, :size, 0, :now) ON CONFLICT DO NOTHING",
+            nativeQuery = true)
+    int insertIfAbsent(@Param("hash") String hash,
+            @Param("objectKey") String objectKey,
+            @Param("size") long size,
+            @Param("now") Instant now);
+
+    @Modifying
+    @Query("UPDATE StoredObject s SET s.refCount = s.refCount + 1 WHERE s.contentHash = :hash")
+    int retain(@Param("hash") String hash);
+
+    @Modifying
+    @Query("UPDATE StoredObject s SET s.refCount = s.refCount - 1 WHERE s.contentHash = :hash")
+    int release(@Param("hash") String hash);
+
+    @Modifying
+    @Query("DELETE FROM StoredObject s WHERE s.contentHash = :hash AND s.refCount <= 0")
+    int deleteIfUnreferenced(@Param("hash") String hash);
+
+    // Drops one reference per listed file; must run before those files are deleted
+    @Modifying
+    @Query("UPDATE StoredObject s SET s.refCount = s.refCount - (SELECT COUNT(f) FROM FileMetadata f "
+            + "WHERE f.contentHash = s.contentHash AND f.storageKey IS NOT NULL AND f.id IN :fileIds) "
+            + "WHERE s.contentHash IN :hashes")
+    int releaseAll(@Param("hashes") Collection<String> hashes, @Param("fileIds") Collection<UUID> fileIds);
+
+    @Query("SELECT s.contentHash FROM StoredObject s WHERE s.contentHash IN :hashes AND s.refCount <= 0")
+    List<String> findUnreferenced(@Param("hashes") Collection<String> hashes);
+
+    @Modifying
+    @Query("DELETE FROM StoredObject s WHERE s.contentHash IN :hashes AND s.refCount <= 0")
+    int deleteUnreferenced(@Param("hashes") Collection<String> hashes);
+
+    @Query("SELECT s.objectKey FROM StoredObject s WHERE s.contentHash = :hash")
+    Optional<String> findObjectKey(@Param("hash") String hash);
+}
@@ -0,0 +1,243 @@
+package com.example.file.service;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.data.redis.core.RedisOperations;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.SessionCallback;
+import org.springframework.stereotype.Component;
+
+import com.example.file.model.dto.CachedFileDto;
+import com.example.file.model.dto.FileResponseDto;
+import com.example.file.utils.TransactionUtils;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Two-tier read-through cache for {@link FileResponseDto}.
+ *
+ * Redis holds {@code file:dto:{id}} entries stamped with the value of a per-file
+ * version counter {@code file:dto:ver:{id}}; an entry is only served while its
+ * stamp matches the counter, so a load that raced with an invalidation can never
+ * be returned. A small, short-lived local tier sits in front and is only filled
+ * from version-checked Redis hits.
+ */
+@Component
+@Slf4j
+public class FileDtoCache {
+    private static final String ENTRY_PREFIX = "file:dto:";
+    private static final String VERSION_PREFIX = "file:dto:ver:";
+    private static final String METRIC = "file.dto.cache";
+
+    private final RedisTemplate<String, Object> redisTemplate;
+    private final Cache<UUID, CachedFileDto> nearCache;
+    private final Duration ttl;
+
+    private final Counter localHits;
+    private final Counter redisHits;
+    private final Counter misses;
+    private final Counter errors;
+
+    public FileDtoCache(RedisTemplate<String, Object> redisTemplate,
+            MeterRegistry meterRegistry,
+            @Value("${cache.file-dto.ttl:10m}") Duration ttl,
+            @Value("${cache.file-dto.local-ttl:5s}") Duration localTtl,
+            @Value("${cache.file-dto.local-max-size:1000}") long localMaxSize) {
+        this.redisTemplate = redisTemplate;
+        this.ttl = ttl;
+        this.nearCache = Caffeine.newBuilder()
+                .maximumSize(localMaxSize)
+                .expireAfterWrite(localTtl)
+                .build();
+
+        this.localHits = meterRegistry.counter(METRIC, "tier", "local", "result", "hit");
+        this.redisHits = meterRegistry.counter(METRIC, "tier", "redis", "result", "hit");
+        this.misses = meterRegistry.counter(METRIC, "tier", "redis", "result", "miss");
+        this.errors = meterRegistry.counter(METRIC + ".errors");
+        meterRegistry.gaugeMapSize(METRIC + ".local.size", List.of(), nearCache.asMap());
+    }
+
+    public FileResponseDto get(UUID fileId, Supplier<FileResponseDto> loader) {
+        CachedFileDto local = nearCache.getIfPresent(fileId);
+        if (local != null) {
+            localHits.increment();
+            return local.dto();
+        }
+
+        long version;
+        try {
+            List<Object> values = redisTemplate.opsForValue().multiGet(List.of(entryKey(fileId), versionKey(fileId)));
+            version = toVersion(values.get(1));
+            if (values.get(0) instanceof CachedFileDto cached && cached.version() == version) {
+                redisHits.increment();
+                nearCache.put(fileId, cached);
+                return cached.dto();
+            }
+        } catch (RuntimeException e) {
+            errors.increment();
+            log.warn("File DTO cache read failed for {}: {}", fileId, e.getMessage());
+            return loader.get();
+        }
+
+        misses.increment();
+        FileResponseDto dto = loader.get();
+        store(Map.of(fileId, new CachedFileDto(version, dto)));
+        return dto;
+    }
+
+    /**
+     * Batch variant of {@link #get}: one MGET for all entries and versions, then a
+     * single loader call for whatever was missing.
+     */
+    public Map<UUID, FileResponseDto> getAll(List<UUID> fileIds,
+            Function<List<UUID>, Map<UUID, FileResponseDto>> loader) {
+        Map<UUID, FileResponseDto> result = new HashMap<>();
+        List<UUID> remote = new ArrayList<>();
+        for (UUID id : fileIds) {
+            CachedFileDto local = nearCache.getIfPresent(id);
+            if (local != null) {
+                localHits.increment();
+                result.put(id, local.dto());
+            } else {
+                remote.add(id);
+            }
+        }
+        if (remote.isEmpty()) {
+            return result;
+        }
+
+        Map<UUID, Long> versions = new HashMap<>();
+        List<UUID> missing = new ArrayList<>();
+        try {
+            List<String> keys = new ArrayList<>(remote.size() * 2);
+            remote.forEach(id -> {
+                keys.add(entryKey(id));
+                keys.add(versionKey(id));
+            });
+            List<Object> values = redisTemplate.opsForValue().multiGet(keys);
+
+            for (int i = 0; i < remote.size(); i++) {
+                UUID id = remote.get(i);
+                long version = toVersion(values.get(i * 2 + 1));
+                if (values.get(i * 2) instanceof CachedFileDto cached && cached.version() == version) {
+                    redisHits.increment();
+                    nearCache.put(id, cached);
+                    result.put(id, cached.dto());
+                } else {
+                    misses.increment();
+                    versions.put(id, version);
+                    missing.add(id);
+                }
+            }
+        } catch (RuntimeException e) {
+            errors.increment();
+            log.warn("File DTO cache batch read failed: {}", e.getMessage());
+            result.putAll(loader.apply(remote));
+            return result;
+        }
+
+        if (!missing.isEmpty()) {
+            Map<UUID, FileResponseDto> loaded = loader.apply(missing);
+            result.putAll(loaded);
+
+            Map<UUID, CachedFileDto> entries = new HashMap<>();
+            loaded.forEach((id, dto) -> entries.put(id, new CachedFileDto(versions.get(id), dto)));
+            store(entries);
+        }
+        return result;
+    }
+
+    /**
+     * Invalidate a file's cached DTO. Inside a transaction the Redis version bump is
+     * deferred until after commit so a concurrent reader cannot re-cache pre-commit state.
+     */
+    public void invalidate(UUID fileId) {
+        nearCache.invalidate(fileId);
+        TransactionUtils.runAfterCommit(() -> evict(fileId));
+    }
+
+    /**
+     * Invalidate many files in one pipeline, for background jobs running outside a transaction.
+     */
+    public void invalidateAll(Collection<UUID> fileIds) {
+        if (!fileIds.isEmpty()) {
+            evict(fileIds);
+        }
+    }
+
+    private void evict(UUID fileId) {
+        evict(List.of(fileId));
+    }
+
+    private void evict(Collection<UUID> fileIds) {
+        fileIds.forEach(nearCache::invalidate);
+        try {
+            redisTemplate.executePipelined(new SessionCallback<Object>() {
+                @Override
+                @SuppressWarnings("unchecked")
+                public Object execute(RedisOperations operations) throws DataAccessException {
+                    RedisOperations<String, Object> ops = operations;
+                    for (UUID fileId : fileIds) {
+                        ops.opsForValue().increment(versionKey(fileId));
+                        // Outlive any entry written under the previous version
+                        ops.expire(versionKey(fileId), ttl.multipliedBy(2));
+                        ops.delete(entryKey(fileId));
+                    }
+                    return null;
+                }
+            });
+        } catch (RuntimeException e) {
+            errors.increment();
+            log.warn("File DTO cache invalidation failed for {}: {}", fileIds, e.getMessage());
+        }
+    }
+
+    private void store(Map<UUID, CachedFileDto> entries) {
+        try {
+            redisTemplate.executePipelined(new SessionCallback<Object>() {
+                @Override
+                @SuppressWarnings("unchecked")
+                public Object execute(RedisOperations operations) throws DataAccessException {
+                    RedisOperations<String, Object> ops = operations;
+                    entries.forEach((id, entry) -> ops.opsForValue().set(entryKey(id), entry, ttl));
+                    return null;
+                }
+            });
+        } catch (RuntimeException e) {
+            errors.increment();
+            log.warn("File DTO cache write failed: {}", e.getMessage());
+        }
+    }
+
+    private static long toVersion(Object value) {
+        if (value instanceof Number n) {
+            return n.longValue();
+        }
+        if (value instanceof String s) {
+            return Long.parseLong(s);
+        }
+        return 0L;
+    }
+
+    private static String entryKey(UUID fileId) {
+        return ENTRY_PREFIX + fileId;
+    }
+
+    private static String versionKey(UUID fileId) {
+        return VERSION_PREFIX + fileId;
+    }
+}
@@ -1,43 +1,90 @@
 package com.example.file.service;
 
-import java.io.InputStream;
+import java.io.IOException;
+import java.time.Duration;
 import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.HexFormat;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Locale;
 import java.util.Map;
+import java.util.Objects;
 import java.util.Optional;
+import java.util.Set;
 import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 import java.util.concurrent.TimeUnit;
 import java.util.stream.Collectors;
+import java.util.regex.Pattern;
 
 import org.springframework.beans.factory.annotation.Value;
-import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.http.HttpRange;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
 
 import com.example.file.exception.FileNotFoundException;
 import com.example.file.exception.FileStorageException;
-import com.example.file.exception.UserNotFoundException;
+import com.example.file.exception.InvalidRequestException;
+import com.example.file.exception.RangeNotSatisfiableException;
+import com.example.file.model.dto.AuthenticatedUser;
+import com.example.file.model.dto.BatchCompleteResult;
+import com.example.file.model.dto.BatchDeleteResult;
+import com.example.file.model.dto.DeletableFile;
+import com.example.file.model.dto.BatchPresignResult;
+import com.example.file.model.dto.FileDownload;
 import com.example.file.model.dto.FileJob;
+import com.example.file.model.dto.FileListQuery;
+import com.example.file.model.dto.FilePageResponse;
 import com.example.file.model.dto.FileResponseDto;
 import com.example.file.model.dto.FileUpdateRequest;
+import com.example.file.model.dto.FileVariantDto;
+import com.example.file.model.dto.MultipartUploadResponse;
+import com.example.file.model.dto.PendingMultipartUpload;
+import com.example.file.model.dto.PresignedPart;
+import com.example.file.model.dto.PresignedUrlRequest;
 import com.example.file.model.dto.PresignedUrlResponse;
 import com.example.file.model.dto.ShareLinkDto;
+import com.example.file.model.dto.VariantUrlView;
 import com.example.file.model.entity.FileMetadata;
 import com.example.file.model.entity.FileVariant;
 import com.example.file.model.entity.User;
 import com.example.file.model.enums.FileStatus;
 import com.example.file.model.enums.JobType;
 import com.example.file.repository.FileMetadataRepository;
+import com.example.file.repository.FileMetadataSpecifications;
 import com.example.file.repository.FileVariantRepository;
 import com.example.file.repository.LinkRepository;
+import com.example.file.repository.StoredObjectRepository;
 import com.example.file.repository.UserRepository;
+import com.example.file.utils.CursorUtils;
 import com.example.file.utils.FileServiceUtils;
 import com.example.file.utils.JsonUtils;
+import com.example.file.utils.TransactionUtils;
+
+import com.google.common.collect.ImmutableMultimap;
 
 import io.minio.GetObjectArgs;
 import io.minio.GetPresignedObjectUrlArgs;
+import io.minio.MinioAsyncClient;
 import io.minio.MinioClient;
-import io.minio.RemoveObjectArgs;
+import io.minio.StatObjectArgs;
+import io.minio.StatObjectResponse;
+import io.minio.errors.ErrorResponseException;
 import io.minio.http.Method;
+import io.minio.messages.ListPartsResult;
+import io.minio.messages.Part;
+import jakarta.annotation.PreDestroy;
 import jakarta.transaction.Transactional;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
@@ -47,17 +94,46 @@ import lombok.extern.slf4j.Slf4j;
 @Slf4j
 public class FileService {
     private final MinioClient minioClient;
+    private final MinioAsyncClient minioAsyncClient;
     private final FileMetadataRepository fileMetadataRepository;
     private final UserRepository userRepository;
     private final FileVariantRepository fileVariantRepository;
+    private final FileDtoCache fileDtoCache;
+    private final LinkViewCounter linkViewCounter;
+    private final LinkTokenCache linkTokenCache;
+    private final StoredObjectRepository storedObjectRepository;
+    private final ObjectGarbageCollector objectGarbageCollector;
     private final LinkRepository linkRepository;
-    private final RedisTemplate<String, Object> redisTemplate;
-    private static final String USER_NOT_FOUND = "User not found";
+    private final NamedParameterJdbcTemplate jdbcTemplate;
+    private final JobOutboxRelay jobOutboxRelay;
+    private final TransactionTemplate transactionTemplate;
+    // Bounded so a large batch cannot flood storage or starve other callers
+    private final ExecutorService checksumLookups = Executors.newFixedThreadPool(CHECKSUM_LOOKUP_THREADS,
+            Thread.ofPlatform().name("checksum-lookup-", 0).daemon(true).factory());
     private static final String FILE_NOT_FOUND = "File not found";
-    private static final String IMAGE_QUEUE = "image:variant:queue";
-    private static final String VIDEO_QUEUE = "video:thumbnail:queue";
-    private static final String PDF_QUEUE = "pdf:preview:queue";
-    private static final String DOC_QUEUE = "doc:preview:queue";
+    private static final int MAX_PAGE_SIZE = 200;
+    private static final int MAX_BATCH_SIZE = 1000;
+    private static final int CHECKSUM_LOOKUP_THREADS = 8;
+    private static final long MIN_PART_SIZE = 8L * 1024 * 1024;
+    private static final int MAX_PARTS = 10_000;
+    private static final int LIST_PARTS_PAGE = 1000;
+    private static final Pattern SHA256_HEX = Pattern.compile("[0-9a-f]{64}");
+    private static final String CHECKSUM_SHA256_HEADER = "x-amz-checksum-sha256";
+    private static final String UPSERT_VARIANTS_SQL = """
+            WITH target AS (
+                SELECT id FROM files WHERE id = :fileId
+            ), upserted AS (
+                INSERT INTO variants (id, file_id, variant_key, url, transform, size_bytes, created_at)
+                SELECT gen_random_uuid(), target.id, v.variant_key, v.url, v.transform::jsonb, v.size_bytes, now()
+                FROM target, unnest(:keys::text[], :urls::text[], :transforms::text[], :sizes::bigint[])
+                    AS v(variant_key, url, transform, size_bytes)
+                ON CONFLICT (file_id, variant_key) DO UPDATE
+                    SET url = EXCLUDED.url, transform = EXCLUDED.transform, size_bytes = EXCLUDED.size_bytes
+            ), pruned AS (
+                DELETE FROM variants WHERE file_id = :fileId AND variant_key <> ALL(:keys::text[])
+            )
+            UPDATE files SET file_status = :status, updated_at = now() WHERE id = :fileId
+            """;
 
     @Value("${minio.bucket}")
     private String bucket;
@@ -65,148 +141,784 @@ public class FileService {
     @Value("${minio.publicBaseUrl}")
     private String publicBaseUrl;
 
+    @Value("${uploads.multipart.part-url-ttl:1h}")
+    private Duration partUrlTtl;
+
+    @PreDestroy
+    void shutdown() {
+        checksumLookups.shutdownNow();
+    }
+
+    @Transactional
     public PresignedUrlResponse generatePresignedUrl(String filename, String contentType, Long size,
-            String userHeader) {
+            String sha256, AuthenticatedUser user) {
         if (!FileServiceUtils.ALLOWED_TYPES.contains(contentType)) {
             throw new FileStorageException("File type not allowed", new RuntimeException());
         }
+        String contentHash = normalizeSha256(sha256);
+        if (sha256 != null && contentHash == null) {
+            throw new InvalidRequestException("Invalid SHA-256 digest");
+        }
 
-        User user = JsonUtils.fromJson(userHeader, User.class);
-        User owner = userRepository.findByEmail(user.getEmail())
-                .orElseThrow(() -> new UserNotFoundException(USER_NOT_FOUND));
+        // The gateway has already verified the caller; a reference avoids a users-table read
+        User owner = userRepository.getReferenceById(user.getId());
 
-        String safeFilename = FileServiceUtils.normalizeFilename(filename);
-        String objectKey = owner.getId() + "/" + UUID.randomUUID() + "_" + safeFilename;
+        String objectKey = newObjectKey(user, filename);
+        FileMetadata meta = newMetadata(owner, filename, contentType, size, objectKey);
+        meta.setContentHash(contentHash);
+
+        // Only content the caller already holds is reused without an upload; a bare hash
+        // from anyone else would otherwise be enough to claim their file
+        if (contentHash != null && reuseOwnedContent(meta, user)) {
+            return new PresignedUrlResponse(objectKey, null, true);
+        }
 
         try {
-            String uploadUrl = minioClient.getPresignedObjectUrl(
-                    GetPresignedObjectUrlArgs.builder()
-                            .method(Method.PUT)
-                            .bucket(bucket)
-                            .object(objectKey)
-                            .expiry(10, TimeUnit.MINUTES)
-                            .build());
-
-            FileMetadata meta = new FileMetadata();
-            meta.setFilename(filename);
-            meta.setObjectKey(objectKey);
-            meta.setSize(size);
-            meta.setMimeType(contentType);
-            meta.setFileStatus(FileStatus.UPLOADED.name());
-            meta.setOwner(owner);
-            meta.setUrl(publicBaseUrl + "/" + objectKey);
-            meta.setCreatedAt(Instant.now());
+            String uploadUrl = presignUpload(objectKey);
             fileMetadataRepository.save(meta);
 
-            return new PresignedUrlResponse(objectKey, uploadUrl);
+            return new PresignedUrlResponse(objectKey, uploadUrl, false);
         } catch (Exception e) {
             throw new FileStorageException("Failed to generate presigned URL", e);
         }
     }
 
+    /**
+     * Presign many uploads at once: items are validated and presigned individually,
+     * and the accepted ones are inserted with one batched flush. Presigning is local
+     * signing work, as the region is configured, so a plain loop is enough.
+     */
     @Transactional
-    public FileResponseDto completeUpload(String objectKey, String userHeader) {
-        User user = JsonUtils.fromJson(userHeader, User.class);
-        User owner = userRepository.findByEmail(user.getEmail())
-                .orElseThrow(() -> new UserNotFoundException(USER_NOT_FOUND));
+    public List<BatchPresignResult> generatePresignedUrls(List<PresignedUrlRequest> requests,
+            AuthenticatedUser user) {
+        if (requests == null || requests.isEmpty()) {
+            throw new InvalidRequestException("No files in batch");
+        }
+        if (requests.size() > MAX_BATCH_SIZE) {
+            throw new InvalidRequestException("Batch exceeds " + MAX_BATCH_SIZE + " files");
+        }
+
+        User owner = userRepository.getReferenceById(user.getId());
+        List<BatchPresignResult> results = new ArrayList<>(requests.size());
+        List<FileMetadata> metas = new ArrayList<>(requests.size());
+
+        for (int i = 0; i < requests.size(); i++) {
+            PresignedUrlRequest req = requests.get(i);
+            String error = uploadValidationError(req);
+            if (error != null) {
+                results.add(BatchPresignResult.failure(i, req == null ? null : req.filename(), error));
+                continue;
+            }
+
+            String objectKey = newObjectKey(user, req.filename());
+            try {
+                String uploadUrl = presignUpload(objectKey);
+                FileMetadata meta = newMetadata(owner, req.filename(), req.contentType(), req.size(), objectKey);
+                meta.setContentHash(normalizeSha256(req.sha256()));
+                metas.add(meta);
+                results.add(BatchPresignResult.success(i, req.filename(), objectKey, uploadUrl));
+            } catch (Exception e) {
+                log.warn("Failed to presign upload {} in batch: {}", req.filename(), e.getMessage());
+                results.add(BatchPresignResult.failure(i, req.filename(), "Failed to generate presigned URL"));
+            }
+        }
+
+        fileMetadataRepository.saveAll(metas);
 
+        return results;
+    }
+
+    private static String uploadValidationError(PresignedUrlRequest req) {
+        if (req == null || req.filename() == null || req.filename().isBlank()) {
+            return "Filename is required";
+        }
+        if (!FileServiceUtils.ALLOWED_TYPES.contains(req.contentType())) {
+            return "File type not allowed";
+        }
+        if (req.size() == null || req.size() < 0) {
+            return "File size is required";
+        }
+        if (req.sha256() != null && normalizeSha256(req.sha256()) == null) {
+            return "Invalid SHA-256 digest";
+        }
+        return null;
+    }
+
+    private static String normalizeSha256(String sha256) {
+        if (sha256 == null) {
+            return null;
+        }
+        String hex = sha256.trim().toLowerCase(Locale.ROOT);
+        return SHA256_HEX.matcher(hex).matches() ? hex : null;
+    }
+
+    private static String newObjectKey(AuthenticatedUser user, String filename) {
+        String safeFilename = FileServiceUtils.normalizeFilename(filename);
+        return user.getId() + "/" + UUID.randomUUID() + "_" + safeFilename;
+    }
+
+    private String presignUpload(String objectKey) throws Exception {
+        return minioClient.getPresignedObjectUrl(
+                GetPresignedObjectUrlArgs.builder()
+                        .method(Method.PUT)
+                        .bucket(bucket)
+                        .object(objectKey)
+                        .expiry(10, TimeUnit.MINUTES)
+                        .build());
+    }
+
+    private FileMetadata newMetadata(User owner, String filename, String contentType, Long size, String objectKey) {
+        FileMetadata meta = new FileMetadata();
+        meta.setFilename(filename);
+        meta.setObjectKey(objectKey);
+        meta.setSize(size);
+        meta.setMimeType(contentType);
+        meta.setFileStatus(FileStatus.UPLOADED.name());
+        meta.setOwner(owner);
+        meta.setUrl(publicBaseUrl + "/" + objectKey);
+        meta.setCreatedAt(Instant.now());
+        return meta;
+    }
+
+    @Transactional
+    public FileResponseDto completeUpload(String objectKey, AuthenticatedUser user) {
         FileMetadata meta = fileMetadataRepository.findByObjectKey(objectKey)
                 .orElseThrow(() -> new FileStorageException(FILE_NOT_FOUND, new RuntimeException()));
 
-        if (!meta.getOwner().getId().equals(owner.getId())) {
+        if (!meta.getOwner().getId().equals(user.getId())) {
             throw new FileStorageException("Unauthorized upload confirmation", new RuntimeException());
         }
+        // A repeated confirmation would re-run processing and collide on the original variant
+        if (!FileStatus.UPLOADED.name().equals(meta.getFileStatus())) {
+            throw new InvalidRequestException("Upload already confirmed");
+        }
+
+        return confirmUpload(meta);
+    }
+
+    private FileResponseDto confirmUpload(FileMetadata meta) {
+        // Verified before locking, so the row lock is not held across the storage round trip
+        String verifiedHash = verifiedContentHash(meta);
+
+        // The status check above ran without a lock; only one of two concurrent confirms gets past here
+        if (fileMetadataRepository.lockInStatus(List.of(meta.getId()), FileStatus.UPLOADED.name()).isEmpty()) {
+            throw new InvalidRequestException("Upload already confirmed");
+        }
+
+        meta.setContentHash(verifiedHash);
+        List<FileVariant> reused = meta.getContentHash() == null ? null : attachContent(meta);
+        if (reused != null) {
+            meta.setFileStatus(FileStatus.COMPLETED.name());
+            fileMetadataRepository.save(meta);
+            fileVariantRepository.saveAll(reused);
+            fileDtoCache.invalidate(meta.getId());
+
+            return new FileResponseDto(meta.getId(), meta.getFilename(), meta.getMimeType(),
+                    meta.getSize(), meta.getCreatedAt(), meta.getUpdatedAt(), variantUrls(reused), null);
+        }
 
         meta.setFileStatus(FileStatus.PROCESSING.name());
         fileMetadataRepository.save(meta);
+        fileDtoCache.invalidate(meta.getId());
 
         Map<String, String> variants = Map.of("original", meta.getUrl());
 
-        if (meta.getMimeType().startsWith("image/")) {
-            sendJob(meta, JobType.IMAGE, IMAGE_QUEUE);
-        } else if (meta.getMimeType().startsWith("video/")) {
-            sendJob(meta, JobType.VIDEO, VIDEO_QUEUE);
-        } else if (meta.getMimeType().equals("application/pdf")) {
-            sendJob(meta, JobType.PDF, PDF_QUEUE);
-        } else if (FileServiceUtils.isDocumentType(meta.getMimeType())) {
-            sendJob(meta, JobType.DOCUMENT, DOC_QUEUE);
+        JobType jobType = jobTypeFor(meta.getMimeType());
+        if (jobType != null) {
+            jobOutboxRelay.enqueue(List.of(
+                    new FileJob(meta.getId(), storageKey(meta), meta.getMimeType(), jobType, meta.getSize())));
         } else {
             meta.setFileStatus(FileStatus.COMPLETED.name());
             fileMetadataRepository.save(meta);
-
-            FileVariant original = new FileVariant();
-            original.setFile(meta);
-            original.setVariantKey("original");
-            original.setUrl(meta.getUrl());
-            original.setTransform(Map.of());
-            original.setSizeBytes(meta.getSize());
-            fileVariantRepository.save(original);
+            fileVariantRepository.save(originalVariant(meta));
         }
 
         return new FileResponseDto(meta.getId(), meta.getFilename(), meta.getMimeType(),
                 meta.getSize(), meta.getCreatedAt(), meta.getUpdatedAt(), variants, null);
     }
 
-    private void sendJob(FileMetadata meta, JobType jobType, String queue) {
-        FileJob job = new FileJob(meta.getId(), meta.getObjectKey(), meta.getMimeType(), jobType);
-        redisTemplate.convertAndSend(queue, job);
+    /**
+     * Check the claimed hash against the checksum storage computed while receiving the
+     * upload. Returns the hash only when they match, so dedup never trusts the client.
+     */
+    private String verifiedContentHash(FileMetadata meta) {
+        if (meta.getContentHash() == null) {
+            return null;
+        }
+        try {
+            StatObjectResponse stat = minioClient.statObject(StatObjectArgs.builder()
+                    .bucket(bucket)
+                    .object(meta.getObjectKey())
+                    .extraHeaders(Map.of("x-amz-checksum-mode", "ENABLED"))
+                    .build());
+            String checksum = stat == null ? null : stat.headers().get(CHECKSUM_SHA256_HEADER);
+            if (checksum != null
+                    && HexFormat.of().formatHex(Base64.getDecoder().decode(checksum)).equals(meta.getContentHash())) {
+                return meta.getContentHash();
+            }
+        } catch (Exception e) {
+            log.warn("Could not verify checksum of {}: {}", meta.getObjectKey(), e.getMessage());
+        }
+        log.debug("Upload {} stored without dedup, checksum not verified", meta.getObjectKey());
+        return null;
+    }
+
+    /**
+     * Take a reference on the stored object for the file's verified hash. The first
+     * copy of some content stays where it was uploaded; a later copy is pointed at the
+     * stored object and its own upload is dropped. Returns the variants reused from an
+     * already processed identical file, or null when the file still needs processing.
+     */
+    private List<FileVariant> attachContent(FileMetadata meta) {
+        String hash = meta.getContentHash();
+        storedObjectRepository.insertIfAbsent(hash, meta.getObjectKey(), meta.getSize(), Instant.now());
+        if (storedObjectRepository.retain(hash) == 0) {
+            // Collected between the insert and the retain; failing is safer than an untracked reference
+            throw new FileStorageException("Stored object vanished", new RuntimeException());
+        }
+        String storageKey = storedObjectRepository.findObjectKey(hash)
+                .orElseThrow(() -> new FileStorageException("Stored object vanished", new RuntimeException()));
+
+        meta.setStorageKey(storageKey);
+        if (storageKey.equals(meta.getObjectKey())) {
+            return null;
+        }
+
+        objectGarbageCollector.enqueue(List.of(meta.getObjectKey()));
+        meta.setUrl(publicBaseUrl + "/" + storageKey);
+
+        return fileMetadataRepository
+                .findFirstByContentHashAndFileStatusAndStorageKeyIsNotNull(hash, FileStatus.COMPLETED.name())
+                .map(source -> copyVariants(source, meta))
+                .orElse(null);
+    }
+
+    private boolean reuseOwnedContent(FileMetadata meta, AuthenticatedUser user) {
+        Optional<FileMetadata> source = fileMetadataRepository
+                .findFirstByOwnerIdAndContentHashAndFileStatusAndStorageKeyIsNotNull(
+                        user.getId(), meta.getContentHash(), FileStatus.COMPLETED.name());
+        if (source.isEmpty() || storedObjectRepository.retain(meta.getContentHash()) == 0) {
+            return false;
+        }
+
+        meta.setStorageKey(source.get().getStorageKey());
+        meta.setUrl(source.get().getUrl());
+        meta.setSize(source.get().getSize());
+        meta.setFileStatus(FileStatus.COMPLETED.name());
+        fileMetadataRepository.save(meta);
+        fileVariantRepository.saveAll(copyVariants(source.get(), meta));
+        return true;
+    }
+
+    private List<FileVariant> copyVariants(FileMetadata source, FileMetadata target) {
+        return fileVariantRepository.findByFileId(source.getId()).stream().map(v -> {
+            FileVariant copy = new FileVariant();
+            copy.setFile(target);
+            copy.setVariantKey(v.getVariantKey());
+            copy.setUrl(v.getUrl());
+            copy.setTransform(v.getTransform());
+            copy.setSizeBytes(v.getSizeBytes());
+            return copy;
+        }).toList();
+    }
+
+    /**
+     * Drop the file's reference on its content. Returns true when the bytes are no
+     * longer used by any file and may be removed from storage.
+     */
+    private boolean releaseContent(FileMetadata meta) {
+        if (meta.getStorageKey() == null) {
+            return true;
+        }
+        storedObjectRepository.release(meta.getContentHash());
+        return storedObjectRepository.deleteIfUnreferenced(meta.getContentHash()) > 0;
+    }
+
+    private static Map<String, String> variantUrls(List<FileVariant> variants) {
+        return variants.stream().collect(Collectors.toMap(FileVariant::getVariantKey, FileVariant::getUrl));
     }
 
+    private static String storageKey(FileMetadata meta) {
+        return meta.getStorageKey() != null ? meta.getStorageKey() : meta.getObjectKey();
+    }
+
+    /**
+     * Open a multipart upload and presign a PUT for every part, so large files are
+     * sent as independent parts the client can upload in parallel and retry alone.
+     */
     @Transactional
-    public void updateFileVariants(FileUpdateRequest updateRequest) {
-        FileMetadata file = fileMetadataRepository.findById(updateRequest.getFileId())
-                .orElseThrow(() -> new FileStorageException(FILE_NOT_FOUND, new RuntimeException()));
+    public MultipartUploadResponse initiateMultipartUpload(PresignedUrlRequest req, AuthenticatedUser user) {
+        String error = uploadValidationError(req);
+        if (error != null) {
+            throw new InvalidRequestException(error);
+        }
+
+        User owner = userRepository.getReferenceById(user.getId());
+        String objectKey = newObjectKey(user, req.filename());
+
+        String uploadId;
+        try {
+            uploadId = minioAsyncClient.createMultipartUploadAsync(bucket, null, objectKey,
+                    ImmutableMultimap.of("Content-Type", req.contentType()), null)
+                    .join()
+                    .result()
+                    .uploadId();
+        } catch (Exception e) {
+            throw new FileStorageException("Failed to start multipart upload", e);
+        }
+
+        // Multipart checksums are per part, so these uploads are stored without a content hash
+        FileMetadata meta = newMetadata(owner, req.filename(), req.contentType(), req.size(), objectKey);
+        meta.setUploadId(uploadId);
+        // Abandon the S3 upload if the row is never committed, otherwise nothing tracks it
+        TransactionUtils.runAfterRollback(() -> abortMultipartUpload(objectKey, uploadId));
+        fileMetadataRepository.save(meta);
 
-        // Clear old variants (in case of reprocessing)
-        fileVariantRepository.deleteAll(fileVariantRepository.findByFileId(file.getId()));
-
-        updateRequest.getVariants().forEach(v -> {
-            FileVariant variant = new FileVariant();
-            variant.setFile(file);
-            variant.setVariantKey(v.getVariantKey());
-            variant.setUrl(v.getUrl());
-            variant.setTransform(v.getTransform());
-            variant.setSizeBytes(v.getSizeBytes());
-            fileVariantRepository.save(variant);
+        return multipartResponse(meta, List.of());
+    }
+
+    /**
+     * Resume an open multipart upload: reports the parts already stored and presigns
+     * the ones still missing.
+     */
+    public MultipartUploadResponse resumeMultipartUpload(String objectKey, AuthenticatedUser user) {
+        FileMetadata meta = openMultipartUpload(objectKey, user);
+        List<Integer> uploaded = listUploadedParts(meta).stream().map(Part::partNumber).toList();
+        return multipartResponse(meta, uploaded);
+    }
+
+    /**
+     * Assemble the uploaded parts into the final object and hand it to the regular
+     * upload confirmation.
+     */
+    @Transactional
+    public FileResponseDto completeMultipartUpload(String objectKey, AuthenticatedUser user) {
+        FileMetadata meta = openMultipartUpload(objectKey, user);
+        List<Part> parts = listUploadedParts(meta);
+
+        int expected = partCount(meta.getSize(), partSize(meta.getSize()));
+        if (parts.size() != expected) {
+            throw new InvalidRequestException("Uploaded " + parts.size() + " of " + expected + " parts");
+        }
+
+        try {
+            minioAsyncClient.completeMultipartUploadAsync(bucket, null, objectKey, meta.getUploadId(),
+                    parts.stream().map(p -> new Part(p.partNumber(), p.etag())).toArray(Part[]::new),
+                    null, null).join();
+        } catch (Exception e) {
+            throw new FileStorageException("Failed to complete multipart upload", e);
+        }
+
+        meta.setSize(parts.stream().mapToLong(Part::partSize).sum());
+        meta.setUploadId(null);
+        return confirmUpload(meta);
+    }
+
+    @Transactional
+    public void abortMultipartUpload(String objectKey, AuthenticatedUser user) {
+        FileMetadata meta = openMultipartUpload(objectKey, user);
+        if (!abortMultipartUpload(objectKey, meta.getUploadId())) {
+            throw new FileStorageException("Failed to abort multipart upload", new RuntimeException());
+        }
+        fileMetadataRepository.delete(meta);
+    }
+
+    /**
+     * Remove the rows of aborted multipart uploads together with any links made to
+     * them meanwhile, set-based like {@link #deleteFiles}. An open upload holds no
+     * content reference and has no object or variants to collect yet.
+     */
+    @Transactional
+    void deleteAbortedUploads(List<PendingMultipartUpload> uploads) {
+        if (uploads.isEmpty()) {
+            return;
+        }
+        List<UUID> ids = uploads.stream().map(PendingMultipartUpload::fileId).toList();
+        fileVariantRepository.deleteByFileIds(ids);
+        linkRepository.deleteByFileIds(ids);
+        fileMetadataRepository.deleteByIds(ids);
+
+        linkTokenCache.invalidateAll(uploads.stream()
+                .map(PendingMultipartUpload::linkToken)
+                .filter(Objects::nonNull)
+                .toList());
+        TransactionUtils.runAfterCommit(() -> fileDtoCache.invalidateAll(ids));
+    }
+
+    /**
+     * Abort an open multipart upload, releasing its stored parts. Returns false when
+     * the upload may still exist so callers can keep tracking it.
+     */
+    boolean abortMultipartUpload(String objectKey, String uploadId) {
+        try {
+            minioAsyncClient.abortMultipartUploadAsync(bucket, null, objectKey, uploadId, null, null).join();
+            return true;
+        } catch (CompletionException e) {
+            // An upload that is already gone is the outcome we wanted
+            if (e.getCause() instanceof ErrorResponseException ere
+                    && "NoSuchUpload".equals(ere.errorResponse().code())) {
+                return true;
+            }
+            log.warn("Failed to abort multipart upload {} for {}: {}", uploadId, objectKey, e.getMessage());
+            return false;
+        } catch (Exception e) {
+            log.warn("Failed to abort multipart upload {} for {}: {}", uploadId, objectKey, e.getMessage());
+            return false;
+        }
+    }
+
+    private FileMetadata openMultipartUpload(String objectKey, AuthenticatedUser user) {
+        FileMetadata meta = fileMetadataRepository.findByObjectKey(objectKey)
+                .orElseThrow(() -> new FileNotFoundException(FILE_NOT_FOUND));
+
+        if (!meta.getOwner().getId().equals(user.getId())) {
+            throw new FileStorageException("Unauthorized upload confirmation", new RuntimeException());
+        }
+        if (meta.getUploadId() == null) {
+            throw new InvalidRequestException("No multipart upload in progress");
+        }
+        return meta;
+    }
+
+    private List<Part> listUploadedParts(FileMetadata meta) {
+        List<Part> parts = new ArrayList<>();
+        Integer marker = null;
+        try {
+            while (true) {
+                ListPartsResult page = minioAsyncClient.listPartsAsync(bucket, null, meta.getObjectKey(),
+                        LIST_PARTS_PAGE, marker, meta.getUploadId(), null, null).join().result();
+                parts.addAll(page.partList());
+                if (!page.isTruncated()) {
+                    return parts;
+                }
+                marker = page.nextPartNumberMarker();
+            }
+        } catch (Exception e) {
+            throw new FileStorageException("Failed to list uploaded parts", e);
+        }
+    }
+
+    private MultipartUploadResponse multipartResponse(FileMetadata meta, List<Integer> uploaded) {
+        long partSize = partSize(meta.getSize());
+        int partCount = partCount(meta.getSize(), partSize);
+        Set<Integer> done = new HashSet<>(uploaded);
+
+        List<PresignedPart> parts = new ArrayList<>(partCount - done.size());
+        try {
+            for (int partNumber = 1; partNumber <= partCount; partNumber++) {
+                if (!done.contains(partNumber)) {
+                    parts.add(new PresignedPart(partNumber, presignPart(meta, partNumber)));
+                }
+            }
+        } catch (Exception e) {
+            throw new FileStorageException("Failed to generate presigned URL", e);
+        }
+
+        return new MultipartUploadResponse(meta.getObjectKey(), meta.getUploadId(), partSize, partCount,
+                uploaded, parts);
+    }
+
+    private String presignPart(FileMetadata meta, int partNumber) throws Exception {
+        return minioClient.getPresignedObjectUrl(
+                GetPresignedObjectUrlArgs.builder()
+                        .method(Method.PUT)
+                        .bucket(bucket)
+                        .object(meta.getObjectKey())
+                        .expiry((int) partUrlTtl.toSeconds(), TimeUnit.SECONDS)
+                        .extraQueryParams(Map.of(
+                                "uploadId", meta.getUploadId(),
+                                "partNumber", String.valueOf(partNumber)))
+                        .build());
+    }
+
+    // S3 allows at most 10,000 parts; grow the part size only when a file would exceed that
+    private static long partSize(long size) {
+        return Math.max(MIN_PART_SIZE, (size + MAX_PARTS - 1) / MAX_PARTS);
+    }
+
+    private static int partCount(long size, long partSize) {
+        return (int) Math.max(1, (size + partSize - 1) / partSize);
+    }
+
+    /**
+     * Confirm many uploads at once: one ownership-scoped lookup, one set-based status
+     * update, and batched inserts of original variants and outbox jobs. Checksums are
+     * verified before the transaction opens, so no row lock is held across storage
+     * round trips.
+     */
+    public List<BatchCompleteResult> completeUploads(List<String> objectKeys, AuthenticatedUser user) {
+        if (objectKeys == null || objectKeys.isEmpty()) {
+            throw new InvalidRequestException("No object keys in batch");
+        }
+        if (objectKeys.size() > MAX_BATCH_SIZE) {
+            throw new InvalidRequestException("Batch exceeds " + MAX_BATCH_SIZE + " files");
+        }
+
+        Map<UUID, String> verifiedHashes = verifiedContentHashes(
+                fileMetadataRepository.findOwnedByObjectKeys(new HashSet<>(objectKeys), user.getId()));
+        return transactionTemplate.execute(status -> confirmUploads(objectKeys, user, verifiedHashes));
+    }
+
+    /**
+     * Verify the claimed hashes of files still awaiting confirmation. The lookups are
+     * network round trips, so they run side by side on a small pool of their own.
+     */
+    private Map<UUID, String> verifiedContentHashes(List<FileMetadata> files) {
+        Map<UUID, CompletableFuture<String>> lookups = new HashMap<>();
+        for (FileMetadata meta : files) {
+            if (meta.getContentHash() != null && FileStatus.UPLOADED.name().equals(meta.getFileStatus())) {
+                lookups.put(meta.getId(), CompletableFuture.supplyAsync(() -> verifiedContentHash(meta), checksumLookups));
+            }
+        }
+
+        Map<UUID, String> verified = new HashMap<>();
+        lookups.forEach((id, lookup) -> {
+            String hash = lookup.join();
+            if (hash != null) {
+                verified.put(id, hash);
+            }
         });
+        return verified;
+    }
+
+    private List<BatchCompleteResult> confirmUploads(List<String> objectKeys, AuthenticatedUser user,
+            Map<UUID, String> verifiedHashes) {
+        Map<String, FileMetadata> byKey = fileMetadataRepository
+                .findOwnedByObjectKeys(new HashSet<>(objectKeys), user.getId())
+                .stream()
+                .collect(Collectors.toMap(FileMetadata::getObjectKey, m -> m));
+
+        // Lock what is still unconfirmed; files a concurrent batch confirmed meanwhile drop out here
+        Set<UUID> unconfirmed = byKey.isEmpty() ? Set.of() : new HashSet<>(fileMetadataRepository.lockInStatus(
+                byKey.values().stream().map(FileMetadata::getId).toList(), FileStatus.UPLOADED.name()));
 
-        file.setFileStatus(updateRequest.getStatus());
-        fileMetadataRepository.save(file);
+        List<BatchCompleteResult> results = new ArrayList<>(objectKeys.size());
+        List<FileJob> jobs = new ArrayList<>();
+        List<UUID> processing = new ArrayList<>();
+        List<UUID> confirmed = new ArrayList<>();
+        List<UUID> touched = new ArrayList<>();
+        List<FileVariant> originals = new ArrayList<>();
+        Set<String> seen = new HashSet<>();
+
+        for (String objectKey : objectKeys) {
+            FileMetadata meta = byKey.get(objectKey);
+            if (meta == null) {
+                results.add(BatchCompleteResult.failure(objectKey, FILE_NOT_FOUND));
+                continue;
+            }
+            if (!seen.add(objectKey) || !unconfirmed.contains(meta.getId())) {
+                results.add(BatchCompleteResult.failure(objectKey, "Upload already confirmed"));
+                continue;
+            }
+
+            touched.add(meta.getId());
+            meta.setContentHash(verifiedHashes.get(meta.getId()));
+            List<FileVariant> reused = meta.getContentHash() == null ? null : attachContent(meta);
+            if (reused != null) {
+                // Flushed as an ordinary entity update ahead of the set-based one below
+                meta.setFileStatus(FileStatus.COMPLETED.name());
+                originals.addAll(reused);
+                results.add(BatchCompleteResult.success(objectKey, meta.getId(), FileStatus.COMPLETED.name()));
+                continue;
+            }
+
+            confirmed.add(meta.getId());
+            JobType jobType = jobTypeFor(meta.getMimeType());
+            if (jobType != null) {
+                processing.add(meta.getId());
+                jobs.add(new FileJob(meta.getId(), storageKey(meta), meta.getMimeType(), jobType, meta.getSize()));
+                results.add(BatchCompleteResult.success(objectKey, meta.getId(), FileStatus.PROCESSING.name()));
+            } else {
+                originals.add(originalVariant(meta));
+                results.add(BatchCompleteResult.success(objectKey, meta.getId(), FileStatus.COMPLETED.name()));
+            }
+        }
+
+        if (!confirmed.isEmpty()) {
+            // An empty IN list is invalid SQL, so pad the processing set with a sentinel
+            int updated = fileMetadataRepository.confirmUploads(confirmed,
+                    processing.isEmpty() ? List.of(new UUID(0, 0)) : processing,
+                    FileStatus.UPLOADED.name(), FileStatus.PROCESSING.name(), FileStatus.COMPLETED.name(),
+                    Instant.now());
+            if (updated != confirmed.size()) {
+                // Someone confirmed part of the batch under us; roll back rather than dispatch twice
+                throw new InvalidRequestException("Upload already confirmed");
+            }
+        }
+        if (!touched.isEmpty()) {
+            fileVariantRepository.saveAll(originals);
+            jobOutboxRelay.enqueue(jobs);
+
+            TransactionUtils.runAfterCommit(() -> fileDtoCache.invalidateAll(touched));
+        }
+
+        return results;
+    }
+
+    private static JobType jobTypeFor(String mimeType) {
+        if (mimeType.startsWith("image/")) {
+            return JobType.IMAGE;
+        } else if (mimeType.startsWith("video/")) {
+            return JobType.VIDEO;
+        } else if (mimeType.equals("application/pdf")) {
+            return JobType.PDF;
+        } else if (FileServiceUtils.isDocumentType(mimeType)) {
+            return JobType.DOCUMENT;
+        }
+        return null;
+    }
+
+    private static FileVariant originalVariant(FileMetadata meta) {
+        FileVariant original = new FileVariant();
+        original.setFile(meta);
+        original.setVariantKey("original");
+        original.setUrl(meta.getUrl());
+        original.setTransform(Map.of());
+        original.setSizeBytes(meta.getSize());
+        return original;
+    }
+
+    /**
+     * Apply a worker result in one statement: variants are upserted on
+     * {@code (file_id, variant_key)}, keys the worker no longer produces are pruned and
+     * the file status is set, so the cost stays flat as variant types are added.
+     */
+    @Transactional
+    public void updateFileVariants(FileUpdateRequest updateRequest) {
+        // ON CONFLICT cannot touch the same row twice in one statement; the last entry wins
+        Map<String, FileVariantDto> byKey = new LinkedHashMap<>();
+        if (updateRequest.getVariants() != null) {
+            updateRequest.getVariants().forEach(v -> byKey.put(v.getVariantKey(), v));
+        }
+        List<FileVariantDto> variants = List.copyOf(byKey.values());
+
+        MapSqlParameterSource params = new MapSqlParameterSource()
+                .addValue("fileId", updateRequest.getFileId())
+                .addValue("status", updateRequest.getStatus())
+                .addValue("keys", variants.stream().map(FileVariantDto::getVariantKey).toArray(String[]::new))
+                .addValue("urls", variants.stream().map(FileVariantDto::getUrl).toArray(String[]::new))
+                .addValue("transforms", variants.stream()
+                        .map(v -> JsonUtils.toJson(v.getTransform() == null ? Map.of() : v.getTransform()))
+                        .toArray(String[]::new))
+                .addValue("sizes", variants.stream().map(FileVariantDto::getSizeBytes).toArray(Long[]::new));
+
+        int updated = jdbcTemplate.update(UPSERT_VARIANTS_SQL, params);
+        if (updated == 0) {
+            // A 404 tells the worker the file is gone and the job need not be retried
+            throw new FileNotFoundException(FILE_NOT_FOUND);
+        }
+        fileDtoCache.invalidate(updateRequest.getFileId());
 
         log.info("File variants updated for fileId: {}", updateRequest.getFileId());
     }
 
-    public List<FileResponseDto> listFiles(String userHeader) {
-        User user = JsonUtils.fromJson(userHeader, User.class);
-        User owner = userRepository.findByEmail(user.getEmail())
-                .orElseThrow(() -> new UserNotFoundException(USER_NOT_FOUND));
+    /**
+     * Keyset-paginated listing ordered by {@code (sortColumn, id)}. One extra row is
+     * fetched to tell whether another page exists without a count query.
+     */
+    public FilePageResponse listFiles(AuthenticatedUser user, FileListQuery query) {
+        int limit = Math.clamp(query.limit(), 1, MAX_PAGE_SIZE);
+        CursorUtils.Cursor cursor = query.cursor() == null || query.cursor().isBlank()
+                ? null
+                : CursorUtils.decode(query.cursor(), query.sort());
 
-        return fileMetadataRepository.findByOwner(owner)
-                .stream()
-                .map(this::mapToDto)
-                .collect(Collectors.toList());
+        Specification<FileMetadata> spec = Specification.allOf(
+                FileMetadataSpecifications.ownedBy(user.getId()),
+                FileMetadataSpecifications.fetchLink(),
+                FileMetadataSpecifications.mimeType(query.mimeType()),
+                FileMetadataSpecifications.fileStatus(query.fileStatus()),
+                FileMetadataSpecifications.nameContains(query.name()),
+                FileMetadataSpecifications.modifiedSince(query.modifiedSince()),
+                FileMetadataSpecifications.after(cursor, query.descending()));
+
+        Sort.Direction direction = query.descending() ? Sort.Direction.DESC : Sort.Direction.ASC;
+        Sort sort = Sort.by(direction, query.sort().getAttribute()).and(Sort.by(direction, "id"));
+
+        List<FileMetadata> rows = fileMetadataRepository.findBy(spec, q -> q.sortBy(sort).limit(limit + 1).all());
+
+        boolean hasMore = rows.size() > limit;
+        List<FileMetadata> page = hasMore ? rows.subList(0, limit) : rows;
+        String nextCursor = hasMore ? CursorUtils.encode(query.sort(), page.get(page.size() - 1)) : null;
+
+        return new FilePageResponse(withLiveViewCounts(cachedDtos(page)), nextCursor, hasMore);
     }
 
     public FileResponseDto viewFileDetail(UUID fileId) {
-        FileMetadata file = fileMetadataRepository.findById(fileId)
-                .orElseThrow(() -> new FileNotFoundException(FILE_NOT_FOUND));
+        FileResponseDto dto = fileDtoCache.get(fileId, () -> {
+            FileMetadata file = fileMetadataRepository.findById(fileId)
+                    .orElseThrow(() -> new FileNotFoundException(FILE_NOT_FOUND));
+            return mapToDtos(List.of(file)).get(0);
+        });
+        return withLiveViewCounts(List.of(dto)).get(0);
+    }
+
+    /**
+     * Add view counts that are still buffered in Redis to the persisted ones.
+     */
+    private List<FileResponseDto> withLiveViewCounts(List<FileResponseDto> dtos) {
+        List<UUID> linkIds = dtos.stream()
+                .map(FileResponseDto::share)
+                .filter(Objects::nonNull)
+                .map(ShareLinkDto::id)
+                .toList();
+        if (linkIds.isEmpty()) {
+            return dtos;
+        }
 
-        return mapToDto(file);
+        Map<UUID, Long> pending = linkViewCounter.pendingViews(linkIds);
+        if (pending.isEmpty()) {
+            return dtos;
+        }
+
+        return dtos.stream()
+                .map(d -> d.share() == null || !pending.containsKey(d.share().id())
+                        ? d
+                        : d.withShare(d.share().withViewCount(d.share().viewCount() + pending.get(d.share().id()))))
+                .toList();
     }
 
-    private FileResponseDto mapToDto(FileMetadata file) {
-        var variants = fileVariantRepository.findByFileId(file.getId())
+    private List<FileResponseDto> cachedDtos(List<FileMetadata> files) {
+        Map<UUID, FileMetadata> byId = files.stream()
+                .collect(Collectors.toMap(FileMetadata::getId, f -> f));
+
+        Map<UUID, FileResponseDto> dtos = fileDtoCache.getAll(List.copyOf(byId.keySet()),
+                missing -> mapToDtos(missing.stream().map(byId::get).toList())
+                        .stream()
+                        .collect(Collectors.toMap(FileResponseDto::id, d -> d)));
+
+        return files.stream().map(f -> dtos.get(f.getId())).toList();
+    }
+
+    /**
+     * Map files to DTOs with a fixed number of queries: variants for the whole
+     * batch are loaded with one IN query, share links come from the already
+     * fetched {@link FileMetadata#getLink()} association.
+     */
+    private List<FileResponseDto> mapToDtos(List<FileMetadata> files) {
+        if (files.isEmpty()) {
+            return List.of();
+        }
+
+        List<UUID> fileIds = files.stream().map(FileMetadata::getId).toList();
+        Map<UUID, Map<String, String>> variantsByFile = fileVariantRepository.findUrlsByFileIds(fileIds)
                 .stream()
-                .collect(Collectors.toMap(
-                        FileVariant::getVariantKey,
-                        FileVariant::getUrl));
+                .collect(Collectors.groupingBy(
+                        VariantUrlView::fileId,
+                        Collectors.toMap(VariantUrlView::variantKey, VariantUrlView::url, (a, b) -> b)));
+
+        return files.stream()
+                .map(file -> mapToDto(file, variantsByFile.getOrDefault(file.getId(), Map.of())))
+                .collect(Collectors.toList());
+    }
 
-        var share = Optional.ofNullable(linkRepository.findByFileId(file.getId()))
+    private FileResponseDto mapToDto(FileMetadata file, Map<String, String> variants) {
+        var share = Optional.ofNullable(file.getLink())
                 .map(l -> new ShareLinkDto(
                         l.getId(),
                         l.getUrl(),
                         l.getExpiresAt(),
-                        l.getPasswordHash() != null))
+                        l.getPasswordHash() != null,
+                        l.getViewCount() == null ? 0 : l.getViewCount()))
                 .orElse(null);
 
         return new FileResponseDto(
@@ -221,50 +933,203 @@ public class FileService {
     }
 
     @Transactional
-    public void deleteFile(UUID fileId, String userHeader) {
-        User user = JsonUtils.fromJson(userHeader, User.class);
+    public void deleteFile(UUID fileId, AuthenticatedUser user) {
         FileMetadata file = fileMetadataRepository.findById(fileId)
                 .orElseThrow(() -> new FileStorageException(FILE_NOT_FOUND, new RuntimeException()));
 
-        if (!file.getOwner().getEmail().equals(user.getEmail())) {
+        if (!file.getOwner().getId().equals(user.getId())) {
             throw new FileStorageException("Not authorized to delete this file", new RuntimeException());
         }
 
-        try {
-            // Delete from MinIO
-            minioClient.removeObject(RemoveObjectArgs.builder()
-                    .bucket(bucket)
-                    .object(file.getObjectKey())
-                    .build());
+        fileDtoCache.invalidate(fileId);
+        if (file.getLink() != null) {
+            linkTokenCache.invalidate(file.getLink().getToken());
+        }
 
-            // Delete variants from MinIO
-            fileVariantRepository.findByFileId(fileId).forEach(v -> {
-                try {
-                    String variantPath = v.getUrl().substring(v.getUrl().indexOf(bucket) + bucket.length() + 1);
-                    minioClient.removeObject(RemoveObjectArgs.builder()
-                            .bucket(bucket)
-                            .object(variantPath)
-                            .build());
-                } catch (Exception ex) {
-                    log.warn("Failed to delete variant {} from MinIO", v.getVariantKey());
-                }
-            });
+        // Shared content stays in storage until its last file is deleted
+        if (!releaseContent(file)) {
             fileMetadataRepository.delete(file);
-        } catch (Exception e) {
-            throw new FileStorageException("Delete failed", e);
+            return;
+        }
+
+        // Storage is cleaned up by the collector once this transaction commits
+        objectGarbageCollector.enqueue(storedObjectKeys(file));
+        fileMetadataRepository.delete(file);
+    }
+
+    private List<String> storedObjectKeys(FileMetadata file) {
+        List<String> keys = new ArrayList<>();
+        keys.add(storageKey(file));
+        file.getVariants().forEach(v -> {
+            String key = objectKeyOf(v.getUrl());
+            if (key != null) {
+                keys.add(key);
+            } else {
+                log.warn("Variant {} of {} is not in the bucket, skipping", v.getVariantKey(), file.getId());
+            }
+        });
+        return keys;
+    }
+
+    // Every URL we hand out is publicBaseUrl + "/" + objectKey, for originals and variants alike
+    private String objectKeyOf(String url) {
+        String prefix = publicBaseUrl + "/";
+        return url != null && url.startsWith(prefix) ? url.substring(prefix.length()) : null;
+    }
+
+    /**
+     * Delete many files at once: one owner-scoped lookup, set-based deletes of
+     * variants, links and files, and a single tombstone insert for the storage
+     * objects nothing references any more. Ids that are unknown or belong to someone
+     * else are reported per entry.
+     */
+    @Transactional
+    public List<BatchDeleteResult> deleteFiles(List<UUID> fileIds, AuthenticatedUser user) {
+        if (fileIds == null || fileIds.isEmpty()) {
+            throw new InvalidRequestException("No files in batch");
+        }
+        if (fileIds.size() > MAX_BATCH_SIZE) {
+            throw new InvalidRequestException("Batch exceeds " + MAX_BATCH_SIZE + " files");
+        }
+
+        Map<UUID, DeletableFile> owned = fileMetadataRepository
+                .findDeletable(new HashSet<>(fileIds), user.getId())
+                .stream()
+                .collect(Collectors.toMap(DeletableFile::id, f -> f));
+
+        List<BatchDeleteResult> results = new ArrayList<>(fileIds.size());
+        Set<UUID> seen = new HashSet<>();
+        for (UUID fileId : fileIds) {
+            if (!owned.containsKey(fileId)) {
+                results.add(BatchDeleteResult.failure(fileId, FILE_NOT_FOUND));
+            } else if (!seen.add(fileId)) {
+                results.add(BatchDeleteResult.failure(fileId, "Duplicate file id"));
+            } else {
+                results.add(BatchDeleteResult.success(fileId));
+            }
         }
+        if (owned.isEmpty()) {
+            return results;
+        }
+
+        Set<UUID> ids = owned.keySet();
+        Set<String> hashes = owned.values().stream()
+                .filter(DeletableFile::holdsReference)
+                .map(DeletableFile::contentHash)
+                .collect(Collectors.toSet());
+        Set<String> freed = new HashSet<>();
+        if (!hashes.isEmpty()) {
+            storedObjectRepository.releaseAll(hashes, ids);
+            freed.addAll(storedObjectRepository.findUnreferenced(hashes));
+            if (!freed.isEmpty()) {
+                storedObjectRepository.deleteUnreferenced(freed);
+            }
+        }
+
+        Map<UUID, List<VariantUrlView>> variantsByFile = fileVariantRepository.findUrlsByFileIds(ids).stream()
+                .collect(Collectors.groupingBy(VariantUrlView::fileId));
+        List<String> garbage = new ArrayList<>();
+        owned.values().stream()
+                .filter(f -> !f.holdsReference() || freed.contains(f.contentHash()))
+                .forEach(f -> {
+                    garbage.add(f.storedKey());
+                    variantsByFile.getOrDefault(f.id(), List.of()).stream()
+                            .map(v -> objectKeyOf(v.url()))
+                            .filter(Objects::nonNull)
+                            .forEach(garbage::add);
+                });
+
+        fileVariantRepository.deleteByFileIds(ids);
+        linkRepository.deleteByFileIds(ids);
+        fileMetadataRepository.deleteByIds(ids);
+        objectGarbageCollector.enqueue(garbage);
+
+        List<UUID> deleted = List.copyOf(ids);
+        linkTokenCache.invalidateAll(owned.values().stream()
+                .map(DeletableFile::linkToken)
+                .filter(Objects::nonNull)
+                .toList());
+        TransactionUtils.runAfterCommit(() -> fileDtoCache.invalidateAll(deleted));
+
+        return results;
     }
 
-    public byte[] downloadFile(UUID fileId) {
+    /**
+     * Open a streaming download for a file, honouring an optional single-range
+     * {@code Range} header. The range is only applied when {@code If-Range} is
+     * absent or still matches the object's current ETag.
+     */
+    public FileDownload downloadFile(UUID fileId, String rangeHeader, String ifRangeHeader) {
         log.info("Downloading file with ID: {}", fileId);
         FileMetadata fileMetadata = fileMetadataRepository.findById(fileId)
                 .orElseThrow(() -> new FileStorageException(FILE_NOT_FOUND, new RuntimeException()));
 
-        try (InputStream stream = minioClient.getObject(
-                GetObjectArgs.builder().bucket(bucket).object(fileMetadata.getObjectKey()).build())) {
-            return stream.readAllBytes();
+        StatObjectResponse stat;
+        try {
+            stat = minioClient.statObject(
+                    StatObjectArgs.builder().bucket(bucket).object(storageKey(fileMetadata)).build());
         } catch (Exception e) {
             throw new FileStorageException("File download failed", e);
         }
+
+        long totalSize = stat.size();
+        String etag = "\"" + stat.etag() + "\"";
+
+        long start = 0;
+        long length = totalSize;
+        boolean partial = false;
+
+        HttpRange range = resolveRange(rangeHeader, ifRangeHeader, etag, totalSize);
+        if (range != null) {
+            try {
+                start = range.getRangeStart(totalSize);
+                length = range.getRangeEnd(totalSize) - start + 1;
+                partial = true;
+            } catch (IllegalArgumentException e) {
+                throw new RangeNotSatisfiableException("Requested range not satisfiable", totalSize);
+            }
+        }
+
+        GetObjectArgs.Builder args = GetObjectArgs.builder()
+                .bucket(bucket)
+                .object(storageKey(fileMetadata))
+                // Opened later by the response body; fail rather than mix in a replaced object
+                .matchETag(stat.etag());
+        if (partial) {
+            args.offset(start).length(length);
+        }
+        GetObjectArgs getArgs = args.build();
+
+        return new FileDownload(fileMetadata.getFilename(), fileMetadata.getMimeType(), etag,
+                totalSize, start, length, partial, () -> {
+                    try {
+                        return minioClient.getObject(getArgs);
+                    } catch (IOException e) {
+                        throw e;
+                    } catch (Exception e) {
+                        throw new IOException("File download failed", e);
+                    }
+                });
+    }
+
+    private HttpRange resolveRange(String rangeHeader, String ifRangeHeader, String etag, long totalSize) {
+        if (rangeHeader == null || rangeHeader.isBlank() || totalSize == 0) {
+            return null;
+        }
+
+        // A stale If-Range validator means the client's partial copy is outdated: send the whole file
+        if (ifRangeHeader != null && !ifRangeHeader.equals(etag)) {
+            return null;
+        }
+
+        List<HttpRange> ranges;
+        try {
+            ranges = HttpRange.parseRanges(rangeHeader);
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+
+        // Multi-range (multipart/byteranges) responses are not supported; fall back to a full response
+        return ranges.size() == 1 ? ranges.get(0) : null;
     }
 }
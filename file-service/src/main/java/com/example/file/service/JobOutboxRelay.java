@@ -0,0 +1,138 @@
+package com.example.file.service;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+
+import org.springframework.context.annotation.Lazy;
+import org.springframework.dao.DataAccessException;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.redis.connection.RedisStreamCommands.XAddOptions;
+import org.springframework.data.redis.connection.stream.StreamRecords;
+import org.springframework.data.redis.core.RedisOperations;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.SessionCallback;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import com.example.file.model.dto.FileJob;
+import com.example.file.model.entity.JobOutboxEntry;
+import com.example.file.model.enums.JobType;
+import com.example.file.repository.JobOutboxRepository;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Transactional outbox for processing jobs.
+ *
+ * Uploads write their jobs to {@code job_outbox} in the same transaction as the
+ * status change, so a job exists exactly when the change commits and the request
+ * never waits on Redis. A scheduled relay, serialised across replicas by a Redis
+ * lock, appends the oldest entries to the per-type job streams in one pipeline and
+ * deletes them afterwards. A crash between the two republishes the batch: delivery
+ * is at least once, and workers apply results idempotently.
+ *
+ * Streams are consumed through a consumer group, so entries wait for a worker
+ * instead of vanishing like pub/sub messages did, and each goes to exactly one
+ * worker. They are trimmed approximately to {@link #STREAM_MAX_LENGTH}, far beyond
+ * any realistic backlog, so acknowledged history does not grow without bound.
+ */
+@Component
+@Lazy(false)
+@Slf4j
+public class JobOutboxRelay {
+    private static final String LOCK_KEY = "jobs:outbox:lock";
+    private static final Duration LOCK_TTL = Duration.ofMinutes(1);
+    private static final int BATCH_SIZE = 500;
+    private static final long STREAM_MAX_LENGTH = 100_000;
+    private static final String JOB_FIELD = "job";
+    private static final Map<JobType, String> STREAMS = Map.of(
+            JobType.IMAGE, "image:variant:queue",
+            JobType.VIDEO, "video:thumbnail:queue",
+            JobType.PDF, "pdf:preview:queue",
+            JobType.DOCUMENT, "doc:preview:queue");
+
+    private final JobOutboxRepository outboxRepository;
+    private final RedisTemplate<String, Object> redisTemplate;
+    private final RedisLock redisLock;
+
+    private final Counter published;
+    private final Counter errors;
+    private final Timer lag;
+
+    public JobOutboxRelay(JobOutboxRepository outboxRepository,
+            RedisTemplate<String, Object> redisTemplate,
+            RedisLock redisLock,
+            MeterRegistry meterRegistry) {
+        this.outboxRepository = outboxRepository;
+        this.redisTemplate = redisTemplate;
+        this.redisLock = redisLock;
+        this.published = meterRegistry.counter("jobs.outbox.published");
+        this.errors = meterRegistry.counter("jobs.outbox.errors");
+        this.lag = meterRegistry.timer("jobs.outbox.lag");
+    }
+
+    /**
+     * Record jobs for dispatch. Joins the caller's transaction, so a rollback
+     * discards them together with the change that produced them.
+     */
+    public void enqueue(Collection<FileJob> jobs) {
+        if (!jobs.isEmpty()) {
+            outboxRepository.saveAll(jobs.stream().map(JobOutboxEntry::new).toList());
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${jobs.outbox.poll-interval:500ms}")
+    public void relay() {
+        RedisLock.Lease lease;
+        try {
+            lease = redisLock.tryAcquire(LOCK_KEY, LOCK_TTL).orElse(null);
+        } catch (RuntimeException e) {
+            log.warn("Job relay skipped: {}", e.getMessage());
+            return;
+        }
+        if (lease == null) {
+            return;
+        }
+
+        try (lease) {
+            List<JobOutboxEntry> batch;
+            do {
+                batch = outboxRepository.findAllByOrderByCreatedAt(Limit.of(BATCH_SIZE));
+                if (!batch.isEmpty()) {
+                    publish(batch);
+                    outboxRepository.deleteAllByIdInBatch(batch.stream().map(JobOutboxEntry::getId).toList());
+                }
+            } while (batch.size() == BATCH_SIZE);
+        } catch (RuntimeException e) {
+            errors.increment();
+            log.error("Job relay failed, will retry: {}", e.getMessage(), e);
+        }
+    }
+
+    private void publish(List<JobOutboxEntry> batch) {
+        redisTemplate.executePipelined(new SessionCallback<Object>() {
+            @Override
+            @SuppressWarnings("unchecked")
+            public Object execute(RedisOperations operations) throws DataAccessException {
+                RedisOperations<String, Object> ops = operations;
+                XAddOptions trim = XAddOptions.maxlen(STREAM_MAX_LENGTH).approximateTrimming(true);
+                batch.forEach(entry -> ops.opsForStream().add(
+                        StreamRecords.newRecord()
+                                .in(STREAMS.get(entry.getJobType()))
+                                .ofMap(Map.<Object, Object>of(JOB_FIELD, entry.toJob())),
+                        trim));
+                return null;
+            }
+        });
+
+        Instant now = Instant.now();
+        batch.forEach(entry -> lag.record(Duration.between(entry.getCreatedAt(), now)));
+        published.increment(batch.size());
+    }
+}
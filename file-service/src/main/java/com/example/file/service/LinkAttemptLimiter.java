@@ -0,0 +1,88 @@
+package com.example.file.service;
+
+import java.time.Duration;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.data.redis.core.RedisOperations;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.SessionCallback;
+import org.springframework.stereotype.Component;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Limits failed link password attempts per (token, client IP). The check runs
+ * before BCrypt so guessing cannot be used to burn CPU; a blocked caller is let
+ * through again once the window passes without new failures.
+ */
+@Component
+@Slf4j
+public class LinkAttemptLimiter {
+    private static final String KEY_PREFIX = "link:pwfail:";
+
+    private final RedisTemplate<String, Object> redisTemplate;
+    private final int maxAttempts;
+
+    @Getter
+    private final Duration window;
+
+    private final Counter throttled;
+
+    public LinkAttemptLimiter(RedisTemplate<String, Object> redisTemplate,
+            MeterRegistry meterRegistry,
+            @Value("${links.password.max-attempts:5}") int maxAttempts,
+            @Value("${links.password.window:15m}") Duration window) {
+        this.redisTemplate = redisTemplate;
+        this.maxAttempts = maxAttempts;
+        this.window = window;
+        this.throttled = meterRegistry.counter("link.password.throttled");
+    }
+
+    public boolean isBlocked(String token, String clientIp) {
+        try {
+            Object failures = redisTemplate.opsForValue().get(key(token, clientIp));
+            boolean blocked = failures instanceof Number n && n.intValue() >= maxAttempts;
+            if (blocked) {
+                throttled.increment();
+            }
+            return blocked;
+        } catch (RuntimeException e) {
+            log.warn("Link attempt limiter unavailable: {}", e.getMessage());
+            return false;
+        }
+    }
+
+    public void recordFailure(String token, String clientIp) {
+        String key = key(token, clientIp);
+        try {
+            redisTemplate.executePipelined(new SessionCallback<Object>() {
+                @Override
+                @SuppressWarnings("unchecked")
+                public Object execute(RedisOperations operations) throws DataAccessException {
+                    RedisOperations<String, Object> ops = operations;
+                    ops.opsForValue().increment(key);
+                    ops.expire(key, window);
+                    return null;
+                }
+            });
+        } catch (RuntimeException e) {
+            log.warn("Failed to record link password failure: {}", e.getMessage());
+        }
+    }
+
+    public void reset(String token, String clientIp) {
+        try {
+            redisTemplate.delete(key(token, clientIp));
+        } catch (RuntimeException e) {
+            log.warn("Failed to reset link password failures: {}", e.getMessage());
+        }
+    }
+
+    private static String key(String token, String clientIp) {
+        return KEY_PREFIX + token + ":" + clientIp;
+    }
+}
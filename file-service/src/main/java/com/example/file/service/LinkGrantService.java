@@ -0,0 +1,98 @@
+package com.example.file.service;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.SecureRandom;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Base64;
+import java.util.UUID;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Issues and verifies short-lived access grants for password-protected links.
+ *
+ * A grant is {@code base64url(linkId|expiresEpochSecond).base64url(HMAC-SHA256)}.
+ * Verifying one is a single HMAC, so callers that already proved the password
+ * skip BCrypt on every following hit.
+ */
+@Component
+@Slf4j
+public class LinkGrantService {
+    private static final String ALGORITHM = "HmacSHA256";
+    private static final Base64.Encoder ENCODER = Base64.getUrlEncoder().withoutPadding();
+    private static final Base64.Decoder DECODER = Base64.getUrlDecoder();
+
+    private final SecretKeySpec key;
+
+    @Getter
+    private final Duration ttl;
+
+    public LinkGrantService(@Value("${links.grant.secret:}") String secret,
+            @Value("${links.grant.ttl:15m}") Duration ttl) {
+        byte[] keyBytes;
+        if (secret == null || secret.isBlank()) {
+            keyBytes = new byte[32];
+            new SecureRandom().nextBytes(keyBytes);
+            log.warn("links.grant.secret is not set; link grants will not survive restarts or work across replicas");
+        } else {
+            keyBytes = secret.getBytes(StandardCharsets.UTF_8);
+        }
+        this.key = new SecretKeySpec(keyBytes, ALGORITHM);
+        this.ttl = ttl;
+    }
+
+    /** Grant valid until the earlier of the grant TTL and the link's own expiry. */
+    public String issue(UUID linkId, Instant linkExpiresAt) {
+        Instant expiresAt = Instant.now().plus(ttl);
+        if (linkExpiresAt != null && linkExpiresAt.isBefore(expiresAt)) {
+            expiresAt = linkExpiresAt;
+        }
+
+        byte[] payload = (linkId + "|" + expiresAt.getEpochSecond()).getBytes(StandardCharsets.UTF_8);
+        return ENCODER.encodeToString(payload) + "." + ENCODER.encodeToString(sign(payload));
+    }
+
+    public boolean verify(String grant, UUID linkId) {
+        if (grant == null || grant.isBlank()) {
+            return false;
+        }
+
+        try {
+            int dot = grant.indexOf('.');
+            if (dot < 0) {
+                return false;
+            }
+            byte[] payload = DECODER.decode(grant.substring(0, dot));
+            byte[] signature = DECODER.decode(grant.substring(dot + 1));
+            if (!MessageDigest.isEqual(sign(payload), signature)) {
+                return false;
+            }
+
+            String[] parts = new String(payload, StandardCharsets.UTF_8).split("\\|");
+            return parts.length == 2
+                    && linkId.equals(UUID.fromString(parts[0]))
+                    && Instant.ofEpochSecond(Long.parseLong(parts[1])).isAfter(Instant.now());
+        } catch (IllegalArgumentException e) {
+            return false;
+        }
+    }
+
+    private byte[] sign(byte[] payload) {
+        try {
+            Mac mac = Mac.getInstance(ALGORITHM);
+            mac.init(key);
+            return mac.doFinal(payload);
+        } catch (Exception e) {
+            throw new IllegalStateException("Failed to sign link grant", e);
+        }
+    }
+}
@@ -1,6 +1,7 @@
 package com.example.file.service;
 
 import java.time.Instant;
+import java.util.Optional;
 import java.util.UUID;
 
 import org.springframework.beans.factory.annotation.Value;
@@ -10,6 +11,7 @@ import com.example.file.exception.LinkNotFoundException;
 import com.example.file.model.dto.AccessLinkResult;
 import com.example.file.model.dto.LinkRequest;
 import com.example.file.model.dto.LinkResponse;
+import com.example.file.model.dto.ResolvedLink;
 import com.example.file.model.entity.FileMetadata;
 import com.example.file.model.entity.Link;
 import com.example.file.repository.FileMetadataRepository;
@@ -24,6 +26,11 @@ import lombok.RequiredArgsConstructor;
 public class LinkService {
     private final LinkRepository linkRepository;
     private final FileMetadataRepository fileMetadataRepository;
+    private final FileDtoCache fileDtoCache;
+    private final LinkViewCounter linkViewCounter;
+    private final LinkTokenCache linkTokenCache;
+    private final LinkGrantService linkGrantService;
+    private final LinkAttemptLimiter linkAttemptLimiter;
 
     @Value("${base.service.url}")
     private String baseUrl;
@@ -45,6 +52,8 @@ public class LinkService {
         link.setUrl(url);
 
         linkRepository.save(link);
+        fileDtoCache.invalidate(file.getId());
+        linkTokenCache.invalidate(token);
 
         return new LinkResponse(
                 token,
@@ -52,32 +61,54 @@ public class LinkService {
                 link.getExpiresAt());
     }
 
-    public AccessLinkResult accessFile(String token, String password) {
-        Link link = linkRepository.findByToken(token)
+    public AccessLinkResult accessFile(String token, String password, String grant, String clientIp) {
+        ResolvedLink link = linkTokenCache.resolve(token, this::loadLink)
                 .orElseThrow(() -> new LinkNotFoundException("Link not found"));
 
-        if (link.getExpiresAt() != null && link.getExpiresAt().isBefore(Instant.now())) {
+        if (link.expiresAt() != null && link.expiresAt().isBefore(Instant.now())) {
             return AccessLinkResult.expired();
         }
 
-        if (link.getPasswordHash() != null &&
-                (password == null || !BCryptUtils.matches(password, link.getPasswordHash()))) {
-            return AccessLinkResult.invalidPassword();
+        String issuedGrant = null;
+        // A valid grant proves the password was already checked; skip BCrypt entirely
+        if (link.hasPassword() && !linkGrantService.verify(grant, link.linkId())) {
+            if (password == null) {
+                return AccessLinkResult.invalidPassword();
+            }
+            if (linkAttemptLimiter.isBlocked(token, clientIp)) {
+                return AccessLinkResult.throttled();
+            }
+            if (!BCryptUtils.matches(password, link.passwordHash())) {
+                linkAttemptLimiter.recordFailure(token, clientIp);
+                return AccessLinkResult.invalidPassword();
+            }
+
+            linkAttemptLimiter.reset(token, clientIp);
+            issuedGrant = linkGrantService.issue(link.linkId(), link.expiresAt());
         }
 
-        String fileUrl = link.getFile().getUrl();
+        // Counted in Redis and flushed in batches; the redirect path never writes to the DB
+        linkViewCounter.recordView(link.linkId());
 
-        // Increase views
-        link.setViewCount(link.getViewCount() + 1);
-        linkRepository.save(link);
+        return AccessLinkResult.success(link.fileUrl(), issuedGrant);
+    }
 
-        return AccessLinkResult.success(fileUrl);
+    private Optional<ResolvedLink> loadLink(String token) {
+        return linkRepository.findByTokenWithFile(token)
+                .map(l -> new ResolvedLink(
+                        l.getId(),
+                        l.getFile().getId(),
+                        l.getFile().getUrl(),
+                        l.getExpiresAt(),
+                        l.getPasswordHash()));
     }
 
     public void deleteLink(UUID linkId){
-        if(linkRepository.existsById(linkId)){
-            linkRepository.deleteById(linkId);
-        }
+        linkRepository.findById(linkId).ifPresent(link -> {
+            linkRepository.delete(link);
+            fileDtoCache.invalidate(link.getFile().getId());
+            linkTokenCache.invalidate(link.getToken());
+        });
     }
 
 }
@@ -0,0 +1,165 @@
+package com.example.file.service;
+
+import java.time.Duration;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.function.Function;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.data.redis.connection.Message;
+import org.springframework.data.redis.connection.MessageListener;
+import org.springframework.data.redis.core.RedisOperations;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.SessionCallback;
+import org.springframework.stereotype.Component;
+
+import com.example.file.model.dto.ResolvedLink;
+import com.example.file.utils.TransactionUtils;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * In-process cache of public share-link tokens. Known tokens map to everything the
+ * redirect needs, so a hot link never reaches Postgres; unknown tokens are cached
+ * briefly as negative entries so random-token probing is absorbed too.
+ *
+ * Invalidations are published on {@link #CHANNEL} so every replica, including this
+ * one, drops the token. Each eviction also bumps the token's generation, and a load
+ * is only cached if the generation is unchanged when it finishes, so a load that
+ * overlapped an update or delete cannot put the old row back. Pub/sub delivery is
+ * not guaranteed, so entries are kept for seconds rather than minutes.
+ */
+@Component
+@Slf4j
+public class LinkTokenCache implements MessageListener {
+    public static final String CHANNEL = "link:token:invalidate";
+    private static final String METRIC = "link.token.cache";
+    private static final int GENERATION_STRIPES = 1024;
+
+    private final RedisTemplate<String, Object> redisTemplate;
+    private final Cache<String, ResolvedLink> known;
+    private final Cache<String, Boolean> unknown;
+    /** Generations striped by token hash; a collision only skips caching one load. */
+    private final AtomicLongArray generations = new AtomicLongArray(GENERATION_STRIPES);
+
+    private final Counter hits;
+    private final Counter negativeHits;
+    private final Counter misses;
+
+    public LinkTokenCache(RedisTemplate<String, Object> redisTemplate,
+            MeterRegistry meterRegistry,
+            @Value("${cache.link-tokens.ttl:30s}") Duration ttl,
+            @Value("${cache.link-tokens.negative-ttl:30s}") Duration negativeTtl,
+            @Value("${cache.link-tokens.max-size:10000}") long maxSize) {
+        this.redisTemplate = redisTemplate;
+        this.known = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(ttl)
+                .build();
+        this.unknown = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(negativeTtl)
+                .build();
+
+        this.hits = meterRegistry.counter(METRIC, "result", "hit");
+        this.negativeHits = meterRegistry.counter(METRIC, "result", "negative_hit");
+        this.misses = meterRegistry.counter(METRIC, "result", "miss");
+        meterRegistry.gaugeMapSize(METRIC + ".size", List.of(), known.asMap());
+    }
+
+    public Optional<ResolvedLink> resolve(String token, Function<String, Optional<ResolvedLink>> loader) {
+        ResolvedLink cached = known.getIfPresent(token);
+        if (cached != null) {
+            hits.increment();
+            return Optional.of(cached);
+        }
+        if (unknown.getIfPresent(token) != null) {
+            negativeHits.increment();
+            return Optional.empty();
+        }
+
+        misses.increment();
+        int stripe = stripe(token);
+        long generation = generations.get(stripe);
+        Optional<ResolvedLink> loaded = loader.apply(token);
+        // Re-checked after each put too: an eviction may land between the check and the put
+        if (loaded.isPresent()) {
+            known.put(token, loaded.get());
+            if (generations.get(stripe) != generation) {
+                known.invalidate(token);
+            }
+        } else {
+            unknown.put(token, Boolean.TRUE);
+            if (generations.get(stripe) != generation) {
+                unknown.invalidate(token);
+            }
+        }
+        return loaded;
+    }
+
+    /**
+     * Drop a token locally right away and on all replicas once the transaction commits.
+     */
+    public void invalidate(String token) {
+        evictLocal(token);
+        TransactionUtils.runAfterCommit(() -> {
+            evictLocal(token);
+            try {
+                redisTemplate.convertAndSend(CHANNEL, token);
+            } catch (RuntimeException e) {
+                log.warn("Failed to publish link token invalidation for {}: {}", token, e.getMessage());
+            }
+        });
+    }
+
+    /**
+     * Invalidate many tokens, publishing them in one pipeline once the transaction commits.
+     */
+    public void invalidateAll(Collection<String> tokens) {
+        if (tokens.isEmpty()) {
+            return;
+        }
+        tokens.forEach(this::evictLocal);
+        TransactionUtils.runAfterCommit(() -> {
+            tokens.forEach(this::evictLocal);
+            try {
+                redisTemplate.executePipelined(new SessionCallback<Object>() {
+                    @Override
+                    @SuppressWarnings("unchecked")
+                    public Object execute(RedisOperations operations) throws DataAccessException {
+                        RedisOperations<String, Object> ops = operations;
+                        tokens.forEach(token -> ops.convertAndSend(CHANNEL, token));
+                        return null;
+                    }
+                });
+            } catch (RuntimeException e) {
+                log.warn("Failed to publish invalidation for {} link tokens: {}", tokens.size(), e.getMessage());
+            }
+        });
+    }
+
+    @Override
+    public void onMessage(Message message, byte[] pattern) {
+        Object token = redisTemplate.getValueSerializer().deserialize(message.getBody());
+        if (token != null) {
+            evictLocal(token.toString());
+        }
+    }
+
+    private void evictLocal(String token) {
+        generations.incrementAndGet(stripe(token));
+        known.invalidate(token);
+        unknown.invalidate(token);
+    }
+
+    private static int stripe(String token) {
+        return Math.floorMod(token.hashCode(), GENERATION_STRIPES);
+    }
+}
@@ -0,0 +1,194 @@
+package com.example.file.service;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+import org.springframework.context.annotation.Lazy;
+import org.springframework.dao.DataAccessException;
+import org.springframework.data.redis.core.RedisOperations;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.SessionCallback;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Write-behind view counting for share links.
+ *
+ * A public link hit only does {@code HINCRBY link:views:pending <linkId> 1}. A
+ * scheduled flush, serialised across replicas by a Redis lock, renames the pending
+ * hash to {@code link:views:flushing}, applies the deltas with one JDBC batch and
+ * then drops the hash. A flushing hash left behind by a failed run is retried
+ * before new deltas are taken, so increments are applied at least once.
+ */
+@Component
+@Lazy(false)
+@Slf4j
+public class LinkViewCounter {
+    private static final String PENDING_KEY = "link:views:pending";
+    private static final String FLUSHING_KEY = "link:views:flushing";
+    private static final String LOCK_KEY = "link:views:flush-lock";
+    private static final Duration LOCK_TTL = Duration.ofMinutes(1);
+
+    private final RedisTemplate<String, Object> redisTemplate;
+    private final RedisLock redisLock;
+    private final NamedParameterJdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final FileDtoCache fileDtoCache;
+
+    private final Counter recorded;
+    private final Counter flushed;
+    private final Counter errors;
+
+    public LinkViewCounter(RedisTemplate<String, Object> redisTemplate,
+            RedisLock redisLock,
+            NamedParameterJdbcTemplate jdbcTemplate,
+            TransactionTemplate transactionTemplate,
+            FileDtoCache fileDtoCache,
+            MeterRegistry meterRegistry) {
+        this.redisTemplate = redisTemplate;
+        this.redisLock = redisLock;
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = transactionTemplate;
+        this.fileDtoCache = fileDtoCache;
+        this.recorded = meterRegistry.counter("link.views.recorded");
+        this.flushed = meterRegistry.counter("link.views.flushed");
+        this.errors = meterRegistry.counter("link.views.errors");
+    }
+
+    public void recordView(UUID linkId) {
+        try {
+            redisTemplate.opsForHash().increment(PENDING_KEY, linkId.toString(), 1);
+            recorded.increment();
+        } catch (RuntimeException e) {
+            // A lost view must never fail the redirect
+            errors.increment();
+            log.warn("Failed to record view for link {}: {}", linkId, e.getMessage());
+        }
+    }
+
+    /**
+     * Views recorded in Redis that are not yet persisted, including any batch in flight.
+     */
+    public Map<UUID, Long> pendingViews(Collection<UUID> linkIds) {
+        Map<UUID, Long> result = new HashMap<>();
+        if (linkIds.isEmpty()) {
+            return result;
+        }
+
+        List<Object> fields = linkIds.stream().map(id -> (Object) id.toString()).toList();
+        try {
+            List<Object> results = redisTemplate.executePipelined(new SessionCallback<Object>() {
+                @Override
+                @SuppressWarnings("unchecked")
+                public Object execute(RedisOperations operations) throws DataAccessException {
+                    RedisOperations<String, Object> ops = operations;
+                    ops.opsForHash().multiGet(PENDING_KEY, fields);
+                    ops.opsForHash().multiGet(FLUSHING_KEY, fields);
+                    return null;
+                }
+            });
+            List<?> pending = (List<?>) results.get(0);
+            List<?> inFlight = (List<?>) results.get(1);
+
+            int i = 0;
+            for (UUID id : linkIds) {
+                long delta = toLong(pending.get(i)) + toLong(inFlight.get(i));
+                if (delta > 0) {
+                    result.put(id, delta);
+                }
+                i++;
+            }
+        } catch (RuntimeException e) {
+            errors.increment();
+            log.warn("Failed to read pending link views: {}", e.getMessage());
+        }
+        return result;
+    }
+
+    @Scheduled(fixedDelayString = "${links.views.flush-interval:10s}")
+    public void flush() {
+        RedisLock.Lease lease;
+        try {
+            lease = redisLock.tryAcquire(LOCK_KEY, LOCK_TTL).orElse(null);
+        } catch (RuntimeException e) {
+            log.warn("Link view flush skipped: {}", e.getMessage());
+            return;
+        }
+        if (lease == null) {
+            return;
+        }
+
+        try (lease) {
+            if (!Boolean.TRUE.equals(redisTemplate.hasKey(FLUSHING_KEY))) {
+                if (!Boolean.TRUE.equals(redisTemplate.hasKey(PENDING_KEY))) {
+                    return;
+                }
+                redisTemplate.rename(PENDING_KEY, FLUSHING_KEY);
+            }
+
+            Map<Object, Object> deltas = redisTemplate.opsForHash().entries(FLUSHING_KEY);
+            List<UUID> fileIds = persist(deltas);
+            redisTemplate.delete(FLUSHING_KEY);
+
+            fileDtoCache.invalidateAll(fileIds);
+            log.debug("Flushed view counts for {} links", deltas.size());
+        } catch (RuntimeException e) {
+            errors.increment();
+            log.error("Link view flush failed, will retry: {}", e.getMessage(), e);
+        }
+    }
+
+    private List<UUID> persist(Map<Object, Object> deltas) {
+        if (deltas.isEmpty()) {
+            return List.of();
+        }
+
+        List<MapSqlParameterSource> batch = new ArrayList<>(deltas.size());
+        List<UUID> linkIds = new ArrayList<>(deltas.size());
+        long total = 0;
+        for (Map.Entry<Object, Object> entry : deltas.entrySet()) {
+            UUID linkId = UUID.fromString(entry.getKey().toString());
+            long delta = toLong(entry.getValue());
+            linkIds.add(linkId);
+            total += delta;
+            batch.add(new MapSqlParameterSource()
+                    .addValue("id", linkId)
+                    .addValue("delta", delta));
+        }
+
+        List<UUID> fileIds = transactionTemplate.execute(status -> {
+            jdbcTemplate.batchUpdate(
+                    "UPDATE links SET view_count = COALESCE(view_count, 0) + :delta WHERE id = :id",
+                    batch.toArray(MapSqlParameterSource[]::new));
+            return jdbcTemplate.queryForList(
+                    "SELECT file_id FROM links WHERE id IN (:ids)",
+                    new MapSqlParameterSource("ids", linkIds),
+                    UUID.class);
+        });
+
+        flushed.increment(total);
+        return fileIds == null ? List.of() : fileIds;
+    }
+
+    private static long toLong(Object value) {
+        if (value instanceof Number n) {
+            return n.longValue();
+        }
+        if (value instanceof String s) {
+            return Long.parseLong(s);
+        }
+        return 0L;
+    }
+}
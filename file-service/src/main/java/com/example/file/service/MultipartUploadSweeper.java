@@ -0,0 +1,85 @@
+package com.example.file.service;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.data.domain.Limit;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import com.example.file.model.dto.PendingMultipartUpload;
+import com.example.file.repository.FileMetadataRepository;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Aborts multipart uploads that were started but never completed.
+ *
+ * Parts of an open upload occupy storage without being visible as an object, so a
+ * client that disappears mid-transfer would leak them forever. Uploads older than
+ * {@code uploads.multipart.max-age} are aborted in MinIO and their placeholder rows
+ * removed. Runs are serialised across replicas by a Redis lock.
+ */
+@Component
+@Lazy(false)
+@Slf4j
+public class MultipartUploadSweeper {
+    private static final String LOCK_KEY = "uploads:multipart:sweep-lock";
+    private static final Duration LOCK_TTL = Duration.ofMinutes(5);
+    private static final int BATCH_SIZE = 200;
+
+    private final FileMetadataRepository fileMetadataRepository;
+    private final FileService fileService;
+    private final RedisLock redisLock;
+    private final Duration maxAge;
+
+    private final Counter aborted;
+
+    public MultipartUploadSweeper(FileMetadataRepository fileMetadataRepository,
+            FileService fileService,
+            RedisLock redisLock,
+            MeterRegistry meterRegistry,
+            @Value("${uploads.multipart.max-age:24h}") Duration maxAge) {
+        this.fileMetadataRepository = fileMetadataRepository;
+        this.fileService = fileService;
+        this.redisLock = redisLock;
+        this.maxAge = maxAge;
+        this.aborted = meterRegistry.counter("uploads.multipart.aborted");
+    }
+
+    @Scheduled(fixedDelayString = "${uploads.multipart.sweep-interval:15m}")
+    public void sweep() {
+        RedisLock.Lease lease;
+        try {
+            lease = redisLock.tryAcquire(LOCK_KEY, LOCK_TTL).orElse(null);
+        } catch (RuntimeException e) {
+            log.warn("Multipart upload sweep skipped: {}", e.getMessage());
+            return;
+        }
+        if (lease == null) {
+            return;
+        }
+
+        try (lease) {
+            Instant cutoff = Instant.now().minus(maxAge);
+            List<PendingMultipartUpload> stale;
+            List<PendingMultipartUpload> released;
+            do {
+                stale = fileMetadataRepository.findStaleMultipartUploads(cutoff, Limit.of(BATCH_SIZE));
+                // Rows whose abort failed stay behind so the next run retries them
+                released = stale.stream()
+                        .filter(u -> fileService.abortMultipartUpload(u.objectKey(), u.uploadId()))
+                        .toList();
+                fileService.deleteAbortedUploads(released);
+                aborted.increment(released.size());
+            } while (stale.size() == BATCH_SIZE && released.size() == stale.size());
+        } catch (RuntimeException e) {
+            log.error("Multipart upload sweep failed, will retry: {}", e.getMessage(), e);
+        }
+    }
+}
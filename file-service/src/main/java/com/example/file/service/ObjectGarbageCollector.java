@@ -0,0 +1,162 @@
+package com.example.file.service;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.data.domain.Limit;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.example.file.model.entity.ObjectTombstone;
+import com.example.file.repository.ObjectTombstoneRepository;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.minio.MinioClient;
+import io.minio.RemoveObjectsArgs;
+import io.minio.Result;
+import io.minio.messages.DeleteError;
+import io.minio.messages.DeleteObject;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Removes storage objects asynchronously.
+ *
+ * Deletes only write {@link ObjectTombstone} rows in their own transaction, so no
+ * request waits on S3. A scheduled run, serialised across replicas by a Redis lock,
+ * drains due tombstones with multi-object deletes of up to 1,000 keys, stopping
+ * while the lock still has a batch's worth of time left. Keys the store fails to
+ * remove are retried with exponential backoff.
+ */
+@Component
+@Lazy(false)
+@Slf4j
+public class ObjectGarbageCollector {
+    private static final String LOCK_KEY = "storage:gc:lock";
+    private static final Duration LOCK_TTL = Duration.ofMinutes(5);
+    /** Time one batch may take; no new batch starts with less than this left on the lock. */
+    private static final Duration BATCH_ALLOWANCE = Duration.ofMinutes(1);
+    private static final int BATCH_SIZE = 1000;
+    private static final Duration MAX_BACKOFF = Duration.ofHours(1);
+
+    private final ObjectTombstoneRepository tombstoneRepository;
+    private final MinioClient minioClient;
+    private final RedisLock redisLock;
+    private final TransactionTemplate transactionTemplate;
+    private final String bucket;
+    private final Duration retryDelay;
+
+    private final Counter removed;
+    private final Counter failed;
+    private final Timer batchTimer;
+
+    public ObjectGarbageCollector(ObjectTombstoneRepository tombstoneRepository,
+            MinioClient minioClient,
+            RedisLock redisLock,
+            TransactionTemplate transactionTemplate,
+            MeterRegistry meterRegistry,
+            @Value("${minio.bucket}") String bucket,
+            @Value("${storage.gc.retry-delay:30s}") Duration retryDelay) {
+        this.tombstoneRepository = tombstoneRepository;
+        this.minioClient = minioClient;
+        this.redisLock = redisLock;
+        this.transactionTemplate = transactionTemplate;
+        this.bucket = bucket;
+        this.retryDelay = retryDelay;
+        this.removed = meterRegistry.counter("storage.gc.removed");
+        this.failed = meterRegistry.counter("storage.gc.failed");
+        this.batchTimer = meterRegistry.timer("storage.gc.batch");
+    }
+
+    /**
+     * Schedule objects for removal. Joins the caller's transaction, so the keys are
+     * only recorded if the delete that orphaned them commits.
+     */
+    public void enqueue(Collection<String> objectKeys) {
+        if (!objectKeys.isEmpty()) {
+            tombstoneRepository.saveAll(objectKeys.stream().distinct().map(ObjectTombstone::new).toList());
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${storage.gc.interval:10s}")
+    public void collect() {
+        RedisLock.Lease lease;
+        try {
+            lease = redisLock.tryAcquire(LOCK_KEY, LOCK_TTL).orElse(null);
+        } catch (RuntimeException e) {
+            log.warn("Object collection skipped: {}", e.getMessage());
+            return;
+        }
+        if (lease == null) {
+            return;
+        }
+
+        try (lease) {
+            List<ObjectTombstone> due;
+            do {
+                due = tombstoneRepository.findByNextAttemptAtLessThanEqualOrderByNextAttemptAt(
+                        Instant.now(), Limit.of(BATCH_SIZE));
+                if (!due.isEmpty()) {
+                    List<ObjectTombstone> batch = due;
+                    batchTimer.record(() -> removeBatch(batch));
+                }
+                // Leave the rest to the next run rather than start a batch the lock may not cover
+            } while (due.size() == BATCH_SIZE && !lease.isExpiring(BATCH_ALLOWANCE));
+        } catch (RuntimeException e) {
+            log.error("Object collection failed, will retry: {}", e.getMessage(), e);
+        }
+    }
+
+    private void removeBatch(List<ObjectTombstone> batch) {
+        Set<String> failedKeys = new HashSet<>();
+        try {
+            Iterable<Result<DeleteError>> errors = minioClient.removeObjects(RemoveObjectsArgs.builder()
+                    .bucket(bucket)
+                    .objects(batch.stream().map(t -> new DeleteObject(t.getObjectKey())).toList())
+                    .build());
+            // The request is sent lazily while the results are read
+            for (Result<DeleteError> result : errors) {
+                DeleteError error = result.get();
+                if (!"NoSuchKey".equals(error.code())) {
+                    failedKeys.add(error.objectName());
+                    log.warn("Failed to remove object {}: {}", error.objectName(), error.message());
+                }
+            }
+        } catch (Exception e) {
+            log.warn("Batch removal of {} objects failed: {}", batch.size(), e.getMessage());
+            batch.forEach(t -> failedKeys.add(t.getObjectKey()));
+        }
+
+        List<UUID> done = batch.stream()
+                .filter(t -> !failedKeys.contains(t.getObjectKey()))
+                .map(ObjectTombstone::getId)
+                .toList();
+        List<ObjectTombstone> retry = batch.stream()
+                .filter(t -> failedKeys.contains(t.getObjectKey()))
+                .toList();
+        retry.forEach(this::backOff);
+
+        transactionTemplate.executeWithoutResult(status -> {
+            tombstoneRepository.deleteAllByIdInBatch(done);
+            tombstoneRepository.saveAll(retry);
+        });
+
+        removed.increment(done.size());
+        failed.increment(retry.size());
+    }
+
+    private void backOff(ObjectTombstone tombstone) {
+        tombstone.setAttempts(tombstone.getAttempts() + 1);
+        Duration delay = retryDelay.multipliedBy(1L << Math.min(tombstone.getAttempts() - 1, 16));
+        tombstone.setNextAttemptAt(Instant.now().plus(delay.compareTo(MAX_BACKOFF) > 0 ? MAX_BACKOFF : delay));
+    }
+}
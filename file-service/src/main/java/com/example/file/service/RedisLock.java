@@ -0,0 +1,76 @@
+package com.example.file.service;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.stereotype.Component;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Redis lock that serialises scheduled jobs across replicas.
+ *
+ * Each acquisition stores a random token and the release only deletes the key while
+ * it still holds that token, so a run that outlived its TTL cannot drop the lock a
+ * later run has taken since. Long runs should check {@link Lease#isExpiring} between
+ * batches and stop before the TTL runs out.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class RedisLock {
+    private static final RedisScript<Long> RELEASE = new DefaultRedisScript<>(
+            "if redis.call('get', KEYS[1]) == ARGV[1] then return redis.call('del', KEYS[1]) else return 0 end",
+            Long.class);
+
+    private final RedisTemplate<String, Object> redisTemplate;
+
+    /**
+     * @return the lease, or empty if another run holds the lock
+     */
+    public Optional<Lease> tryAcquire(String key, Duration ttl) {
+        String token = UUID.randomUUID().toString();
+        // Taken before SET so the local deadline never outlasts the key
+        long deadline = System.nanoTime() + ttl.toNanos();
+        if (!Boolean.TRUE.equals(redisTemplate.opsForValue().setIfAbsent(key, token, ttl))) {
+            return Optional.empty();
+        }
+        return Optional.of(new Lease(key, token, deadline));
+    }
+
+    public final class Lease implements AutoCloseable {
+        private final String key;
+        private final String token;
+        private final long deadline;
+
+        private Lease(String key, String token, long deadline) {
+            this.key = key;
+            this.token = token;
+            this.deadline = deadline;
+        }
+
+        /** Whether the lock expires within {@code margin}, or already has. */
+        public boolean isExpiring(Duration margin) {
+            return System.nanoTime() + margin.toNanos() - deadline >= 0;
+        }
+
+        @Override
+        public void close() {
+            try {
+                Long released = redisTemplate.execute(RELEASE, List.of(key), token);
+                if (released == null || released == 0) {
+                    log.warn("Lock {} expired before it was released", key);
+                }
+            } catch (RuntimeException e) {
+                // The TTL frees it anyway
+                log.warn("Failed to release lock {}: {}", key, e.getMessage());
+            }
+        }
+    }
+}
@@ -0,0 +1,40 @@
+package com.example.file.service;
+
+import java.time.Duration;
+import java.util.Optional;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import com.example.file.model.entity.User;
+import com.example.file.repository.UserRepository;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+
+/**
+ * Bounded, time-limited cache of {@link User} rows for the few paths that need
+ * the entity itself rather than the gateway-supplied id.
+ */
+@Component
+public class UserCache {
+    private final UserRepository userRepository;
+    private final Cache<String, User> byEmail;
+
+    public UserCache(UserRepository userRepository,
+            @Value("${cache.users.ttl:10m}") Duration ttl,
+            @Value("${cache.users.max-size:10000}") long maxSize) {
+        this.userRepository = userRepository;
+        this.byEmail = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(ttl)
+                .build();
+    }
+
+    public Optional<User> findByEmail(String email) {
+        if (email == null) {
+            return Optional.empty();
+        }
+        // Misses are not cached so a user created after the first lookup is picked up
+        return Optional.ofNullable(byEmail.get(email, e -> userRepository.findByEmail(e).orElse(null)));
+    }
+}
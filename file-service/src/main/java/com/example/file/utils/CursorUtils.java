@@ -0,0 +1,59 @@
+package com.example.file.utils;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.Base64;
+import java.util.UUID;
+
+import org.springframework.stereotype.Component;
+
+import com.example.file.exception.InvalidRequestException;
+import com.example.file.model.entity.FileMetadata;
+import com.example.file.model.enums.FileSortField;
+
+/**
+ * Encodes keyset pagination cursors as opaque URL-safe tokens of the form
+ * {@code sort|id|value}, where value is the sort column of the last row.
+ */
+@Component
+public class CursorUtils {
+
+    private CursorUtils() {
+    }
+
+    public record Cursor(FileSortField sort, UUID id, Comparable<?> value) {
+    }
+
+    public static String encode(FileSortField sort, FileMetadata last) {
+        Object value = switch (sort) {
+            case CREATED -> last.getCreatedAt();
+            case SIZE -> last.getSize();
+            case NAME -> last.getFilename();
+        };
+        String raw = sort.name() + "|" + last.getId() + "|" + value;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    public static Cursor decode(String cursor, FileSortField expectedSort) {
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            String[] parts = raw.split("\\|", 3);
+            FileSortField sort = FileSortField.valueOf(parts[0]);
+            if (sort != expectedSort) {
+                throw new InvalidRequestException("Cursor does not match requested sort");
+            }
+
+            UUID id = UUID.fromString(parts[1]);
+            Comparable<?> value = switch (sort) {
+                case CREATED -> Instant.parse(parts[2]);
+                case SIZE -> Long.parseLong(parts[2]);
+                case NAME -> parts[2];
+            };
+            return new Cursor(sort, id, value);
+        } catch (InvalidRequestException e) {
+            throw e;
+        } catch (RuntimeException e) {
+            throw new InvalidRequestException("Invalid cursor");
+        }
+    }
+}
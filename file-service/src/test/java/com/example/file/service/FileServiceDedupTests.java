@@ -0,0 +1,224 @@
+package com.example.file.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.when;
+
+import java.time.Instant;
+import java.util.Base64;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.UUID;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.context.annotation.Import;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+
+import com.example.file.model.dto.AuthenticatedUser;
+import com.example.file.model.dto.BatchCompleteResult;
+import com.example.file.model.dto.BatchDeleteResult;
+import com.example.file.model.dto.PresignedUrlResponse;
+import com.example.file.model.entity.FileMetadata;
+import com.example.file.model.entity.FileVariant;
+import com.example.file.model.entity.StoredObject;
+import com.example.file.model.entity.User;
+
+import io.minio.MinioAsyncClient;
+import io.minio.MinioClient;
+import io.minio.StatObjectArgs;
+import io.minio.StatObjectResponse;
+import okhttp3.Headers;
+
+@DataJpaTest
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Import({ FileService.class, FileDtoCache.class, LinkViewCounter.class, LinkTokenCache.class,
+        ObjectGarbageCollector.class, JobOutboxRelay.class, RedisLock.class,
+        FileServiceQueryCountTests.MetricsConfig.class })
+@TestPropertySource(properties = {
+        "spring.datasource.url=jdbc:h2:mem:dedup;MODE=PostgreSQL;INIT=CREATE DOMAIN IF NOT EXISTS jsonb AS JSON",
+        "spring.datasource.username=sa",
+        "spring.datasource.password=",
+        "minio.bucket=test",
+        "minio.publicBaseUrl=http://minio/test"
+})
+class FileServiceDedupTests {
+
+    private static final String HASH = "9f86d081884c7d659a2feaa0c55ad015a3bf4f1b2b0b822cd15d6c15b0f00a08";
+
+    @Autowired
+    private FileService fileService;
+
+    @Autowired
+    private TestEntityManager em;
+
+    @MockitoBean
+    private MinioClient minioClient;
+
+    @MockitoBean
+    private MinioAsyncClient minioAsyncClient;
+
+    @MockitoBean
+    private RedisTemplate<String, Object> redisTemplate;
+
+    private User owner;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        owner = new User();
+        owner.setName("owner");
+        owner.setEmail("dedup@example.com");
+        owner.setPassword("secret");
+        em.persist(owner);
+
+        String checksum = Base64.getEncoder().encodeToString(HexFormat.of().parseHex(HASH));
+        when(minioClient.statObject(any(StatObjectArgs.class))).thenReturn(new StatObjectResponse(
+                Headers.of("x-amz-checksum-sha256", checksum,
+                        "ETag", "\"etag\"",
+                        "Content-Length", "1024",
+                        "Last-Modified", "Mon, 01 Jan 2024 00:00:00 GMT"),
+                "test", null, "any"));
+    }
+
+    @Test
+    void identicalUploadsShareOneStoredObject() {
+        FileMetadata first = persistUpload("a.zip");
+        FileMetadata second = persistUpload("b.zip");
+
+        fileService.completeUpload(first.getObjectKey(), authenticated());
+        fileService.completeUpload(second.getObjectKey(), authenticated());
+        em.flush();
+        em.clear();
+
+        FileMetadata reloaded = em.find(FileMetadata.class, second.getId());
+        assertThat(reloaded.getStorageKey()).isEqualTo(first.getObjectKey());
+        assertThat(reloaded.getUrl()).isEqualTo(first.getUrl());
+        assertThat(reloaded.getFileStatus()).isEqualTo("COMPLETED");
+        assertThat(em.find(StoredObject.class, HASH).getRefCount()).isEqualTo(2);
+    }
+
+    @Test
+    void batchConfirmSharesContentVerifiedUpFront() {
+        FileMetadata first = persistUpload("a.zip");
+        FileMetadata second = persistUpload("b.zip");
+        em.flush();
+        em.clear();
+
+        List<BatchCompleteResult> results = fileService.completeUploads(
+                List.of(first.getObjectKey(), second.getObjectKey()), authenticated());
+        em.flush();
+        em.clear();
+
+        assertThat(results).extracting(BatchCompleteResult::status).containsExactly("COMPLETED", "COMPLETED");
+        assertThat(em.find(FileMetadata.class, second.getId()).getStorageKey()).isEqualTo(first.getObjectKey());
+        assertThat(em.find(StoredObject.class, HASH).getRefCount()).isEqualTo(2);
+    }
+
+    @Test
+    void storedObjectIsRemovedWithItsLastReference() {
+        FileMetadata first = persistUpload("a.zip");
+        FileMetadata second = persistUpload("b.zip");
+        fileService.completeUpload(first.getObjectKey(), authenticated());
+        fileService.completeUpload(second.getObjectKey(), authenticated());
+        em.flush();
+        em.clear();
+
+        // The duplicate's own upload is collected as soon as it is attached
+        assertThat(tombstonedKeys()).containsExactly(second.getObjectKey());
+
+        fileService.deleteFile(first.getId(), authenticated());
+        em.flush();
+        em.clear();
+        assertThat(tombstonedKeys()).containsExactly(second.getObjectKey());
+        assertThat(em.find(StoredObject.class, HASH).getRefCount()).isEqualTo(1);
+
+        fileService.deleteFile(second.getId(), authenticated());
+        em.flush();
+        em.clear();
+        assertThat(tombstonedKeys()).contains(first.getObjectKey());
+        assertThat(em.find(StoredObject.class, HASH)).isNull();
+    }
+
+    @Test
+    void bulkDeleteReleasesSharedContentAndReportsEachId() {
+        FileMetadata first = persistUpload("a.zip");
+        FileMetadata second = persistUpload("b.zip");
+        fileService.completeUpload(first.getObjectKey(), authenticated());
+        fileService.completeUpload(second.getObjectKey(), authenticated());
+        FileMetadata plain = persistUpload("c.zip");
+        plain.setContentHash(null);
+        em.flush();
+        em.clear();
+
+        UUID unknown = UUID.randomUUID();
+        List<BatchDeleteResult> results = fileService.deleteFiles(
+                List.of(first.getId(), plain.getId(), unknown, first.getId()), authenticated());
+        em.flush();
+        em.clear();
+
+        assertThat(results).extracting(BatchDeleteResult::deleted).containsExactly(true, true, false, false);
+        assertThat(em.find(FileMetadata.class, first.getId())).isNull();
+        assertThat(em.find(FileMetadata.class, plain.getId())).isNull();
+        assertThat(em.find(FileMetadata.class, second.getId())).isNotNull();
+        assertThat(em.find(StoredObject.class, HASH).getRefCount()).isEqualTo(1);
+        assertThat(tombstonedKeys()).contains(plain.getObjectKey()).doesNotContain(first.getObjectKey());
+    }
+
+    private List<String> tombstonedKeys() {
+        return em.getEntityManager()
+                .createQuery("SELECT t.objectKey FROM ObjectTombstone t", String.class)
+                .getResultList();
+    }
+
+    @Test
+    void ownerReuploadSkipsTheTransfer() {
+        FileMetadata first = persistUpload("a.zip");
+        fileService.completeUpload(first.getObjectKey(), authenticated());
+        em.flush();
+        em.clear();
+
+        PresignedUrlResponse response = fileService.generatePresignedUrl("copy.zip", "application/zip", 1024L,
+                HASH.toUpperCase(), authenticated());
+        em.flush();
+        em.clear();
+
+        assertThat(response.isDeduplicated()).isTrue();
+        assertThat(response.getPresignedUrl()).isNull();
+        FileMetadata copy = em.getEntityManager()
+                .createQuery("SELECT f FROM FileMetadata f WHERE f.objectKey = :key", FileMetadata.class)
+                .setParameter("key", response.getObjectKey())
+                .getSingleResult();
+        assertThat(copy.getStorageKey()).isEqualTo(first.getObjectKey());
+        assertThat(em.getEntityManager()
+                .createQuery("SELECT v FROM FileVariant v WHERE v.file.id = :id", FileVariant.class)
+                .setParameter("id", copy.getId())
+                .getResultList())
+                .extracting(FileVariant::getVariantKey)
+                .containsExactly("original");
+        assertThat(em.find(StoredObject.class, HASH).getRefCount()).isEqualTo(2);
+    }
+
+    private FileMetadata persistUpload(String filename) {
+        FileMetadata file = new FileMetadata();
+        file.setFilename(filename);
+        file.setObjectKey(owner.getId() + "/" + filename);
+        file.setUrl("http://minio/test/" + owner.getId() + "/" + filename);
+        file.setSize(1024L);
+        file.setMimeType("application/zip");
+        file.setFileStatus("UPLOADED");
+        file.setContentHash(HASH);
+        file.setOwner(owner);
+        file.setCreatedAt(Instant.now());
+        return em.persist(file);
+    }
+
+    private AuthenticatedUser authenticated() {
+        return new AuthenticatedUser(owner.getId(), owner.getName(), owner.getEmail());
+    }
+}
@@ -0,0 +1,306 @@
+package com.example.file.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Import;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+
+import com.example.file.model.dto.AuthenticatedUser;
+import com.example.file.model.dto.BatchCompleteResult;
+import com.example.file.model.dto.FileListQuery;
+import com.example.file.model.dto.FilePageResponse;
+import com.example.file.model.dto.FileResponseDto;
+import com.example.file.model.entity.FileMetadata;
+import com.example.file.model.entity.FileVariant;
+import com.example.file.model.entity.Link;
+import com.example.file.model.entity.User;
+import com.example.file.model.enums.FileSortField;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import io.minio.MinioAsyncClient;
+import io.minio.MinioClient;
+import jakarta.persistence.EntityManagerFactory;
+
+@DataJpaTest
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Import({ FileService.class, FileDtoCache.class, LinkViewCounter.class, LinkTokenCache.class,
+        ObjectGarbageCollector.class, JobOutboxRelay.class, RedisLock.class,
+        FileServiceQueryCountTests.MetricsConfig.class })
+@TestPropertySource(properties = {
+        "spring.datasource.url=jdbc:h2:mem:files;MODE=PostgreSQL;INIT=CREATE DOMAIN IF NOT EXISTS jsonb AS JSON",
+        "spring.datasource.username=sa",
+        "spring.datasource.password=",
+        "spring.jpa.properties.hibernate.generate_statistics=true",
+        "minio.bucket=test",
+        "minio.publicBaseUrl=http://minio/test"
+})
+class FileServiceQueryCountTests {
+
+    @TestConfiguration
+    static class MetricsConfig {
+        @Bean
+        MeterRegistry meterRegistry() {
+            return new SimpleMeterRegistry();
+        }
+    }
+
+    @Autowired
+    private FileService fileService;
+
+    @Autowired
+    private TestEntityManager em;
+
+    @Autowired
+    private EntityManagerFactory emf;
+
+    @MockitoBean
+    private MinioClient minioClient;
+
+    @MockitoBean
+    private MinioAsyncClient minioAsyncClient;
+
+    @MockitoBean
+    private RedisTemplate<String, Object> redisTemplate;
+
+    private Statistics statistics;
+
+    @BeforeEach
+    void setUp() {
+        statistics = emf.unwrap(SessionFactory.class).getStatistics();
+    }
+
+    @Test
+    void listFilesQueryCountDoesNotGrowWithFileCount() {
+        long fewFiles = countListQueries("few@example.com", 2);
+        long manyFiles = countListQueries("many@example.com", 40);
+
+        assertThat(manyFiles).isEqualTo(fewFiles);
+    }
+
+    @Test
+    void listFilesFillsVariantsAndShareLinks() {
+        User owner = persistOwner("share@example.com");
+        persistFiles(owner, 3);
+        em.flush();
+        em.clear();
+
+        List<FileResponseDto> files = fileService.listFiles(authenticated(owner), query(null, 50, FileSortField.CREATED))
+                .items();
+
+        assertThat(files).hasSize(3);
+        assertThat(files).allSatisfy(f -> {
+            assertThat(f.variants()).containsKeys("original", "thumbnail");
+            assertThat(f.share()).isNotNull();
+            assertThat(f.share().hasPassword()).isTrue();
+        });
+    }
+
+    @Test
+    void nameAndModifiedFiltersRunInTheQuery() {
+        User owner = persistOwner("filters@example.com");
+        persistFiles(owner, 7);
+        em.flush();
+        em.clear();
+        Instant now = Instant.now();
+
+        assertThat(list(owner, "FILE-3", null)).extracting(FileResponseDto::name).containsExactly("file-3.png");
+        // Wildcards in the search text match literally
+        assertThat(list(owner, "_", null)).isEmpty();
+        assertThat(list(owner, null, now.minus(Duration.ofDays(1)))).hasSize(7);
+        assertThat(list(owner, null, now.plus(Duration.ofDays(1)))).isEmpty();
+    }
+
+    @Test
+    void cursorWalksEveryFileExactlyOnce() {
+        User owner = persistOwner("pages@example.com");
+        persistFiles(owner, 7);
+        em.flush();
+        em.clear();
+
+        for (FileSortField sort : FileSortField.values()) {
+            Set<UUID> seen = new HashSet<>();
+            String cursor = null;
+            int pages = 0;
+            do {
+                FilePageResponse page = fileService.listFiles(authenticated(owner), query(cursor, 3, sort));
+                page.items().forEach(f -> assertThat(seen.add(f.id())).isTrue());
+                cursor = page.nextCursor();
+                pages++;
+            } while (cursor != null);
+
+            assertThat(seen).hasSize(7);
+            assertThat(pages).isEqualTo(3);
+        }
+    }
+
+    @Test
+    void completeUploadsQueryCountDoesNotGrowWithBatchSize() {
+        long fewFiles = countCompleteQueries("batch-few@example.com", 2);
+        long manyFiles = countCompleteQueries("batch-many@example.com", 40);
+
+        assertThat(manyFiles).isEqualTo(fewFiles);
+    }
+
+    @Test
+    void completeUploadsReportsPerKeyOutcome() {
+        User owner = persistOwner("batch@example.com");
+        FileMetadata image = persistUpload(owner, "photo.png", "image/png");
+        FileMetadata text = persistUpload(owner, "notes.zip", "application/zip");
+        FileMetadata foreign = persistUpload(persistOwner("other@example.com"), "theirs.png", "image/png");
+        em.flush();
+        em.clear();
+
+        List<BatchCompleteResult> results = fileService.completeUploads(List.of(image.getObjectKey(),
+                text.getObjectKey(), foreign.getObjectKey(), image.getObjectKey()), authenticated(owner));
+        em.clear();
+
+        assertThat(results).extracting(BatchCompleteResult::status)
+                .containsExactly("PROCESSING", "COMPLETED", null, null);
+        assertThat(results.get(2).error()).isNotNull();
+        assertThat(results.get(3).error()).isNotNull();
+        assertThat(em.find(FileMetadata.class, image.getId()).getFileStatus()).isEqualTo("PROCESSING");
+        assertThat(em.find(FileMetadata.class, text.getId()).getFileStatus()).isEqualTo("COMPLETED");
+        assertThat(em.find(FileMetadata.class, foreign.getId()).getFileStatus()).isEqualTo("UPLOADED");
+    }
+
+    @Test
+    void deleteFilesQueryCountDoesNotGrowWithBatchSize() {
+        long fewFiles = countDeleteQueries("delete-few@example.com", 2);
+        long manyFiles = countDeleteQueries("delete-many@example.com", 40);
+
+        assertThat(manyFiles).isEqualTo(fewFiles);
+    }
+
+    private long countDeleteQueries(String email, int fileCount) {
+        User owner = persistOwner(email);
+        persistFiles(owner, fileCount);
+        em.flush();
+        em.clear();
+        List<UUID> ids = fileService.listFiles(authenticated(owner), query(null, 200, FileSortField.CREATED))
+                .items().stream().map(FileResponseDto::id).toList();
+
+        statistics.clear();
+        fileService.deleteFiles(ids, authenticated(owner));
+        em.flush();
+
+        return statistics.getPrepareStatementCount();
+    }
+
+    private long countCompleteQueries(String email, int fileCount) {
+        User owner = persistOwner(email);
+        List<String> keys = new ArrayList<>();
+        for (int i = 0; i < fileCount; i++) {
+            keys.add(persistUpload(owner, "upload-" + i + (i % 2 == 0 ? ".png" : ".zip"),
+                    i % 2 == 0 ? "image/png" : "application/zip").getObjectKey());
+        }
+        em.flush();
+        em.clear();
+
+        statistics.clear();
+        fileService.completeUploads(keys, authenticated(owner));
+        em.flush();
+
+        return statistics.getPrepareStatementCount();
+    }
+
+    private FileMetadata persistUpload(User owner, String filename, String mimeType) {
+        FileMetadata file = new FileMetadata();
+        file.setFilename(filename);
+        file.setObjectKey(owner.getId() + "/" + filename);
+        file.setUrl("http://minio/test/" + owner.getId() + "/" + filename);
+        file.setSize(1024L);
+        file.setMimeType(mimeType);
+        file.setFileStatus("UPLOADED");
+        file.setOwner(owner);
+        file.setCreatedAt(Instant.now());
+        return em.persist(file);
+    }
+
+    private long countListQueries(String email, int fileCount) {
+        User owner = persistOwner(email);
+        persistFiles(owner, fileCount);
+        em.flush();
+        em.clear();
+
+        statistics.clear();
+        List<FileResponseDto> files = fileService.listFiles(authenticated(owner), query(null, 200, FileSortField.CREATED))
+                .items();
+        assertThat(files).hasSize(fileCount);
+
+        return statistics.getPrepareStatementCount();
+    }
+
+    private User persistOwner(String email) {
+        User owner = new User();
+        owner.setName("owner");
+        owner.setEmail(email);
+        owner.setPassword("secret");
+        return em.persist(owner);
+    }
+
+    private void persistFiles(User owner, int count) {
+        for (int i = 0; i < count; i++) {
+            FileMetadata file = new FileMetadata();
+            file.setFilename("file-" + i + ".png");
+            file.setObjectKey(owner.getId() + "/" + i + ".png");
+            file.setUrl("http://minio/test/" + owner.getId() + "/" + i + ".png");
+            file.setSize(1024L);
+            file.setMimeType("image/png");
+            file.setFileStatus("COMPLETED");
+            file.setOwner(owner);
+            file.setCreatedAt(Instant.now());
+            em.persist(file);
+
+            for (String key : List.of("original", "thumbnail")) {
+                FileVariant variant = new FileVariant();
+                variant.setFile(file);
+                variant.setVariantKey(key);
+                variant.setUrl(file.getUrl() + "?" + key);
+                variant.setTransform(Map.of());
+                em.persist(variant);
+            }
+
+            Link link = new Link();
+            link.setFile(file);
+            link.setToken(owner.getEmail() + i);
+            link.setUrl("http://links/" + owner.getEmail() + i);
+            link.setPasswordHash("hash");
+            em.persist(link);
+        }
+    }
+
+    private FileListQuery query(String cursor, int limit, FileSortField sort) {
+        return new FileListQuery(cursor, limit, sort, true, null, null, null, null);
+    }
+
+    private List<FileResponseDto> list(User owner, String name, Instant modifiedSince) {
+        return fileService.listFiles(authenticated(owner),
+                new FileListQuery(null, 50, FileSortField.CREATED, true, null, null, name, modifiedSince)).items();
+    }
+
+    private AuthenticatedUser authenticated(User owner) {
+        return new AuthenticatedUser(owner.getId(), owner.getName(), owner.getEmail());
+    }
+}
@@ -0,0 +1,215 @@
+package com.example.file.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.stream.Collectors;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.boot.testcontainers.service.connection.ServiceConnection;
+import org.springframework.context.annotation.Import;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import com.example.file.exception.FileNotFoundException;
+import com.example.file.model.dto.FileUpdateRequest;
+import com.example.file.model.dto.FileVariantDto;
+import com.example.file.model.entity.FileMetadata;
+import com.example.file.model.entity.FileVariant;
+import com.example.file.model.entity.User;
+
+import io.minio.MinioAsyncClient;
+import io.minio.MinioClient;
+
+/**
+ * The variant upsert relies on data-modifying CTEs, {@code unnest} over bound arrays
+ * and {@code ON CONFLICT} on {@code uk_variants_file_key}, none of which H2 runs,
+ * so this suite needs a real Postgres and is skipped where Docker is unavailable.
+ */
+@DataJpaTest
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Testcontainers(disabledWithoutDocker = true)
+@Import({ FileService.class, FileDtoCache.class, LinkViewCounter.class, LinkTokenCache.class,
+        ObjectGarbageCollector.class, JobOutboxRelay.class, RedisLock.class,
+        FileServiceQueryCountTests.MetricsConfig.class })
+@TestPropertySource(properties = {
+        "spring.jpa.hibernate.ddl-auto=create-drop",
+        "minio.bucket=test",
+        "minio.publicBaseUrl=http://minio/test"
+})
+class FileServiceVariantUpsertTests {
+
+    @Container
+    @ServiceConnection
+    static PostgreSQLContainer<?> postgres = new PostgreSQLContainer<>("postgres:16-alpine");
+
+    @Autowired
+    private FileService fileService;
+
+    @Autowired
+    private TestEntityManager em;
+
+    @MockitoBean
+    private MinioClient minioClient;
+
+    @MockitoBean
+    private MinioAsyncClient minioAsyncClient;
+
+    @MockitoBean
+    private RedisTemplate<String, Object> redisTemplate;
+
+    private FileMetadata file;
+
+    @BeforeEach
+    void setUp() {
+        User owner = new User();
+        owner.setName("owner");
+        owner.setEmail("variants@example.com");
+        owner.setPassword("secret");
+        em.persist(owner);
+
+        file = new FileMetadata();
+        file.setFilename("photo.png");
+        file.setObjectKey(owner.getId() + "/photo.png");
+        file.setUrl("http://minio/test/" + owner.getId() + "/photo.png");
+        file.setSize(1024L);
+        file.setMimeType("image/png");
+        file.setFileStatus("PROCESSING");
+        file.setOwner(owner);
+        file.setCreatedAt(Instant.now());
+        em.persist(file);
+
+        persistVariant("original", "http://minio/test/original.png", 1024L);
+        persistVariant("thumbnail", "http://minio/test/thumbnail-old.png", 10L);
+        persistVariant("medium", "http://minio/test/medium.png", 100L);
+        em.flush();
+        em.clear();
+    }
+
+    @Test
+    void upsertsExistingKeysAndAddsNewOnes() {
+        fileService.updateFileVariants(update("COMPLETED",
+                variant("original", "http://minio/test/original.png", 1024L),
+                variant("thumbnail", "http://minio/test/thumbnail-new.png", 20L),
+                variant("medium", "http://minio/test/medium.png", 100L),
+                variant("large", "http://minio/test/large.png", 400L)));
+        em.clear();
+
+        Map<String, FileVariant> variants = variantsByKey();
+        assertThat(variants).containsOnlyKeys("original", "thumbnail", "medium", "large");
+        assertThat(variants.get("thumbnail").getUrl()).isEqualTo("http://minio/test/thumbnail-new.png");
+        assertThat(variants.get("thumbnail").getSizeBytes()).isEqualTo(20L);
+        assertThat(variants.get("thumbnail").getTransform()).containsEntry("width", 200);
+        assertThat(variants.get("large").getSizeBytes()).isEqualTo(400L);
+    }
+
+    @Test
+    void prunesKeysTheWorkerNoLongerProduces() {
+        fileService.updateFileVariants(update("COMPLETED",
+                variant("original", "http://minio/test/original.png", 1024L),
+                variant("thumbnail", "http://minio/test/thumbnail-old.png", 10L)));
+        em.clear();
+
+        assertThat(variantsByKey()).containsOnlyKeys("original", "thumbnail");
+    }
+
+    @Test
+    void setsTheFileStatus() {
+        fileService.updateFileVariants(update("FAILED",
+                variant("original", "http://minio/test/original.png", 1024L)));
+        em.clear();
+
+        FileMetadata reloaded = em.find(FileMetadata.class, file.getId());
+        assertThat(reloaded.getFileStatus()).isEqualTo("FAILED");
+        assertThat(reloaded.getUpdatedAt()).isNotNull();
+    }
+
+    @Test
+    void duplicateKeysInOneRequestKeepTheLastEntry() {
+        fileService.updateFileVariants(update("COMPLETED",
+                variant("thumbnail", "http://minio/test/first.png", 1L),
+                variant("thumbnail", "http://minio/test/last.png", 2L)));
+        em.clear();
+
+        assertThat(variantsByKey().get("thumbnail").getUrl()).isEqualTo("http://minio/test/last.png");
+    }
+
+    @Test
+    void emptyVariantListClearsVariantsAndStillSetsStatus() {
+        fileService.updateFileVariants(FileUpdateRequest.builder()
+                .fileId(file.getId())
+                .status("FAILED")
+                .variants(List.of())
+                .build());
+        em.clear();
+
+        assertThat(variantsByKey()).isEmpty();
+        assertThat(em.find(FileMetadata.class, file.getId()).getFileStatus()).isEqualTo("FAILED");
+    }
+
+    @Test
+    void unknownFileIsReportedAsNotFound() {
+        FileUpdateRequest request = FileUpdateRequest.builder()
+                .fileId(UUID.randomUUID())
+                .status("COMPLETED")
+                .variants(List.of(variant("original", "http://minio/test/ghost.png", 1L)))
+                .build();
+
+        assertThatThrownBy(() -> fileService.updateFileVariants(request))
+                .isInstanceOf(FileNotFoundException.class)
+                .hasMessage("File not found");
+        assertThat(em.getEntityManager()
+                .createQuery("SELECT COUNT(v) FROM FileVariant v WHERE v.url = :url", Long.class)
+                .setParameter("url", "http://minio/test/ghost.png")
+                .getSingleResult())
+                .isZero();
+    }
+
+    private FileUpdateRequest update(String status, FileVariantDto... variants) {
+        return FileUpdateRequest.builder()
+                .fileId(file.getId())
+                .status(status)
+                .variants(List.of(variants))
+                .build();
+    }
+
+    private static FileVariantDto variant(String key, String url, long size) {
+        return FileVariantDto.builder()
+                .variantKey(key)
+                .url(url)
+                .transform(Map.of("width", 200))
+                .sizeBytes(size)
+                .build();
+    }
+
+    private void persistVariant(String key, String url, long size) {
+        FileVariant variant = new FileVariant();
+        variant.setFile(file);
+        variant.setVariantKey(key);
+        variant.setUrl(url);
+        variant.setTransform(Map.of());
+        variant.setSizeBytes(size);
+        em.persist(variant);
+    }
+
+    private Map<String, FileVariant> variantsByKey() {
+        return em.getEntityManager()
+                .createQuery("SELECT v FROM FileVariant v WHERE v.file.id = :id", FileVariant.class)
+                .setParameter("id", file.getId())
+                .getResultStream()
+                .collect(Collectors.toMap(FileVariant::getVariantKey, v -> v));
+    }
+}
@@ -1,6 +1,6 @@
 "use client";
 
-import { useState } from "react";
+import { useEffect, useState } from "react";
 import { Search, LayoutGrid, List } from "lucide-react";
 import { Select, SelectTrigger, SelectContent, SelectItem } from "@/components/ui/select";
 import { Input } from "@/components/ui/input";
@@ -9,10 +9,17 @@ import FileBrowser from "@/components/files/file-browser";
 export default function FilesPage() {
   const [view, setView] = useState<"list" | "grid">("list");
   const [query, setQuery] = useState("");
-  const [sort, setSort] = useState("modified-desc");
+  const [searchQuery, setSearchQuery] = useState("");
+  const [sort, setSort] = useState("created-desc");
   const [typeFilter, setTypeFilter] = useState("all");
   const [dateFilter, setDateFilter] = useState("any");
 
+  // Search runs on the server, so wait for typing to pause
+  useEffect(() => {
+    const timer = setTimeout(() => setSearchQuery(query), 300);
+    return () => clearTimeout(timer);
+  }, [query]);
+
   return (
     <div className="space-y-6">
       {/* Top toolbar */}
@@ -36,7 +43,7 @@ export default function FilesPage() {
           </SelectTrigger>
           <SelectContent>
             <SelectItem value="name-asc">Name (A–Z)</SelectItem>
-            <SelectItem value="modified-desc">Last Modified (Newest)</SelectItem>
+            <SelectItem value="created-desc">Newest</SelectItem>
             <SelectItem value="size-desc">Size (Largest)</SelectItem>
           </SelectContent>
         </Select>
@@ -84,7 +91,7 @@ export default function FilesPage() {
 
       {/* File Browser */}
       <FileBrowser
-        query={query}
+        query={searchQuery}
         sort={sort}
         typeFilter={typeFilter}
         dateFilter={dateFilter}
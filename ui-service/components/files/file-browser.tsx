@@ -1,10 +1,57 @@
 "use client";
 
-import useSWR from "swr";
+import useSWRInfinite from "swr/infinite";
 import { swrFetcher } from "@/lib/api";
 import FileList from "./file-list";
 import FileGrid from "./file-grid";
 import { FileItem } from "@/lib/store";
+import { Button } from "@/components/ui/button";
+
+type FilePage = {
+  items: FileItem[];
+  nextCursor: string | null;
+  hasMore: boolean;
+};
+
+const PAGE_SIZE = 100;
+const DAY_MS = 24 * 60 * 60 * 1000;
+
+// The server matches a family ("image") or an exact type
+const TYPE_PARAMS: Record<string, string> = {
+  image: "image",
+  pdf: "application/pdf",
+  video: "video",
+  audio: "audio",
+};
+
+const SORT_PARAMS: Record<string, { sort: string; order: string }> = {
+  "name-asc": { sort: "name", order: "asc" },
+  "size-desc": { sort: "size", order: "desc" },
+  "created-desc": { sort: "created", order: "desc" },
+};
+
+const DATE_DAYS: Record<string, number> = { today: 0, week: 7, month: 30 };
+
+// Rounded down to local midnight so the key stays stable between renders
+const modifiedSince = (dateFilter?: string) => {
+  const days = dateFilter ? DATE_DAYS[dateFilter] : undefined;
+  if (days === undefined) return undefined;
+  const since = new Date(Date.now() - days * DAY_MS);
+  since.setHours(0, 0, 0, 0);
+  return since.toISOString();
+};
+
+const buildFilterParams = ({ query, sort, typeFilter, dateFilter }: Omit<FileBrowserProps, "view">) => {
+  const params = new URLSearchParams({ limit: String(PAGE_SIZE) });
+  const order = SORT_PARAMS[sort ?? ""] ?? SORT_PARAMS["created-desc"];
+  params.set("sort", order.sort);
+  params.set("order", order.order);
+  if (query?.trim()) params.set("q", query.trim());
+  if (typeFilter && TYPE_PARAMS[typeFilter]) params.set("mimeType", TYPE_PARAMS[typeFilter]);
+  const since = modifiedSince(dateFilter);
+  if (since) params.set("modifiedSince", since);
+  return params.toString();
+};
 
 type FileBrowserProps = {
   query?: string;
@@ -21,54 +68,37 @@ export default function FileBrowser({
   dateFilter,
   view,
 }: FileBrowserProps) {
-  const { data: files, isLoading } = useSWR<FileItem[]>("/api/files/", swrFetcher);
+  // Filtering and sorting happen on the server; a new key starts paging over
+  const filters = buildFilterParams({ query, sort, typeFilter, dateFilter });
+  const { data: pages, isLoading, isValidating, size, setSize } = useSWRInfinite<FilePage>(
+    (pageIndex: number, previous: FilePage | null) => {
+      if (previous && !previous.hasMore) return null;
+      if (pageIndex === 0 || !previous?.nextCursor) return `/api/files/?${filters}`;
+      return `/api/files/?${filters}&cursor=${encodeURIComponent(previous.nextCursor)}`;
+    },
+    swrFetcher
+  );
+  const files = pages?.flatMap((p) => p.items);
+  const hasMore = pages?.[pages.length - 1]?.hasMore ?? false;
 
   if (isLoading) return <p>Loading...</p>;
   if (!files || files.length === 0) return <p>No files found.</p>;
 
-  let filtered: FileItem[] = [...files];
-
-  // 🔍 SEARCH FILTER
-  if (query) {
-    const q = query.toLowerCase();
-    filtered = filtered.filter((f: FileItem) =>
-      f.name.toLowerCase().includes(q)
-    );
-  }
-
-  // 📁 TYPE FILTER
-  if (typeFilter !== "all") {
-    filtered = filtered.filter((f: FileItem) => f.type.startsWith(typeFilter));
-  }
-
-  // 📅 DATE FILTER
-  const now = Date.now();
-  filtered = filtered.filter((f: FileItem) => {
-    const modified = new Date(f.updatedAt || f.createdAt).getTime() ?? 0;
-
-    if (dateFilter === "today") return now - modified < 24 * 60 * 60 * 1000;
-
-    if (dateFilter === "week") return now - modified < 7 * 24 * 60 * 60 * 1000;
-
-    if (dateFilter === "month")
-      return now - modified < 30 * 24 * 60 * 60 * 1000;
-
-    return true;
-  });
-
-  // 🔄 SORTING
-  filtered.sort((a: FileItem, b: FileItem) => {
-    if (sort === "name-asc") return a.name.localeCompare(b.name);
-    if (sort === "size-desc") return b.size - a.size;
-    if (sort === "modified-desc")
-      return new Date(b.updatedAt).getTime() - new Date(a.updatedAt).getTime();
-    return 0;
-  });
-
   // 🗂 VIEW SWITCH
-  return view === "list" ? (
-    <FileList files={filtered} />
-  ) : (
-    <FileGrid files={filtered} />
+  return (
+    <>
+      {view === "list" ? (
+        <FileList files={files} />
+      ) : (
+        <FileGrid files={files} />
+      )}
+      {hasMore && (
+        <div className="flex justify-center py-4">
+          <Button variant="outline" disabled={isValidating} onClick={() => setSize(size + 1)}>
+            {isValidating ? "Loading..." : "Load more"}
+          </Button>
+        </div>
+      )}
+    </>
   );
 }
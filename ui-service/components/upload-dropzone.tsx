@@ -8,6 +8,117 @@ import { mutate } from "swr";
 import { api } from "@/lib/api";
 import { toast } from "sonner";
 
+// Files at or above this size go through the multipart flow
+const MULTIPART_THRESHOLD = 64 * 1024 * 1024;
+const PART_CONCURRENCY = 4;
+const PART_RETRIES = 3;
+
+type MultipartUpload = {
+  objectKey: string;
+  uploadId: string;
+  partSize: number;
+  partCount: number;
+  uploadedParts: number[];
+  parts: { partNumber: number; url: string }[];
+};
+
+async function sha256(file: File) {
+  const bytes = new Uint8Array(await crypto.subtle.digest("SHA-256", await file.arrayBuffer()));
+  return {
+    hex: Array.from(bytes, (b) => b.toString(16).padStart(2, "0")).join(""),
+    base64: btoa(String.fromCharCode(...bytes)),
+  };
+}
+
+function putWithProgress(
+  url: string,
+  body: Blob,
+  contentType: string | null,
+  onProgress: (loaded: number) => void,
+  headers: Record<string, string> = {}
+) {
+  return new Promise<void>((resolve, reject) => {
+    const xhr = new XMLHttpRequest();
+    xhr.open("PUT", url, true);
+    if (contentType) xhr.setRequestHeader("Content-Type", contentType);
+    Object.entries(headers).forEach(([name, value]) => xhr.setRequestHeader(name, value));
+
+    xhr.upload.onprogress = (event) => {
+      if (event.lengthComputable) onProgress(event.loaded);
+    };
+
+    xhr.onload = () => {
+      if (xhr.status >= 200 && xhr.status < 300) {
+        onProgress(body.size);
+        resolve();
+      } else {
+        reject(new Error(`Upload failed with status ${xhr.status}`));
+      }
+    };
+
+    xhr.onerror = () => reject(new Error("Network error during upload"));
+    xhr.send(body);
+  });
+}
+
+async function uploadMultipart(file: File, setProgress: (percent: number) => void) {
+  const upload: MultipartUpload = await api("/api/files/upload/multipart", {
+    method: "POST",
+    headers: { "Content-Type": "application/json" },
+    body: JSON.stringify({
+      filename: file.name,
+      contentType: file.type,
+      size: file.size,
+    }),
+  });
+
+  const sent = new Map<number, number>();
+  const report = () => {
+    let total = 0;
+    sent.forEach((bytes) => (total += bytes));
+    setProgress((total / file.size) * 100);
+  };
+
+  const sendPart = async ({ partNumber, url }: { partNumber: number; url: string }) => {
+    const start = (partNumber - 1) * upload.partSize;
+    const chunk = file.slice(start, Math.min(start + upload.partSize, file.size));
+    for (let attempt = 1; ; attempt++) {
+      try {
+        await putWithProgress(url, chunk, null, (loaded) => {
+          sent.set(partNumber, loaded);
+          report();
+        });
+        return;
+      } catch (err) {
+        sent.set(partNumber, 0);
+        if (attempt >= PART_RETRIES) throw err;
+      }
+    }
+  };
+
+  // A few workers pull parts from a shared queue so slow parts don't stall the rest
+  const queue = [...upload.parts];
+  const workers = Array.from({ length: Math.min(PART_CONCURRENCY, queue.length) }, async () => {
+    for (let part = queue.shift(); part; part = queue.shift()) {
+      await sendPart(part);
+    }
+  });
+
+  try {
+    await Promise.all(workers);
+  } catch (err) {
+    // Leave the upload open: parts already stored survive and the server aborts it if never resumed
+    queue.length = 0;
+    throw err;
+  }
+
+  return api("/api/files/upload/multipart/complete", {
+    method: "POST",
+    headers: { "Content-Type": "application/json" },
+    body: JSON.stringify({ objectKey: upload.objectKey }),
+  });
+}
+
 export function UploadDropzone() {
   const [progress, setProgress] = useState<number>(0);
   const [isUploading, setIsUploading] = useState(false);
@@ -22,43 +133,47 @@ export function UploadDropzone() {
       setLink(null);
 
       try {
-        // 1️⃣ Step 1: Request signed upload URL
-        const { presignedUrl: uploadUrl, objectKey } = await api("/api/files/upload", {
+        if (file.size >= MULTIPART_THRESHOLD) {
+          const data = await uploadMultipart(file, setProgress);
+          setLink(data.url);
+          mutate("/files");
+          toast.success("Upload complete");
+          return;
+        }
+
+        // 1️⃣ Step 1: Request signed upload URL; the digest lets the server skip known content
+        const digest = await sha256(file);
+        const {
+          presignedUrl: uploadUrl,
+          objectKey,
+          deduplicated,
+        } = await api("/api/files/upload", {
           method: "POST",
           headers: { "Content-Type": "application/json" },
           body: JSON.stringify({
             filename: file.name,
             contentType: file.type,
             size: file.size,
+            sha256: digest.hex,
           }),
         });
 
-        // 2️⃣ Step 2: Upload file directly with progress tracking
-        await new Promise<void>((resolve, reject) => {
-          const xhr = new XMLHttpRequest();
-          xhr.open("PUT", uploadUrl, true);
-          xhr.setRequestHeader("Content-Type", file.type);
-
-          // Progress event handler
-          xhr.upload.onprogress = (event) => {
-            if (event.lengthComputable) {
-              const percent = (event.loaded / event.total) * 100;
-              setProgress(percent);
-            }
-          };
-
-          xhr.onload = () => {
-            if (xhr.status >= 200 && xhr.status < 300) {
-              setProgress(100);
-              resolve();
-            } else {
-              reject(new Error(`Upload failed with status ${xhr.status}`));
-            }
-          };
-
-          xhr.onerror = () => reject(new Error("Network error during upload"));
-          xhr.send(file);
-        });
+        if (deduplicated) {
+          setProgress(100);
+          mutate("/files");
+          toast.success("Upload complete", { description: "Already stored, no transfer needed" });
+          return;
+        }
+
+        // 2️⃣ Step 2: Upload file directly with progress tracking; storage verifies the digest
+        await putWithProgress(
+          uploadUrl,
+          file,
+          file.type,
+          (loaded) => setProgress((loaded / file.size) * 100),
+          { "x-amz-checksum-sha256": digest.base64 }
+        );
+        setProgress(100);
 
         // 3️⃣ Step 3: Notify backend that upload completed
         const data = await api("/api/files/complete", {
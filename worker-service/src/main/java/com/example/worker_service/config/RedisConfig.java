@@ -1,37 +1,23 @@
 package com.example.worker_service.config;
 
+import java.time.Duration;
+
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.data.redis.connection.RedisConnectionFactory;
+import org.springframework.data.redis.connection.stream.MapRecord;
 import org.springframework.data.redis.core.RedisTemplate;
-import org.springframework.data.redis.listener.PatternTopic;
-import org.springframework.data.redis.listener.RedisMessageListenerContainer;
-import org.springframework.data.redis.listener.adapter.MessageListenerAdapter;
 import org.springframework.data.redis.serializer.GenericJackson2JsonRedisSerializer;
 import org.springframework.data.redis.serializer.StringRedisSerializer;
+import org.springframework.data.redis.stream.StreamMessageListenerContainer;
+import org.springframework.data.redis.stream.StreamMessageListenerContainer.StreamMessageListenerContainerOptions;
 
-import com.example.worker_service.service.DocPreviewWorker;
-import com.example.worker_service.service.ImageVariantWorker;
-import com.example.worker_service.service.PdfPreviewWorker;
-import com.example.worker_service.service.VideoThumbnailWorker;
-
-import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
 
 @Configuration
-@RequiredArgsConstructor
+@Slf4j
 public class RedisConfig {
 
-    private final ImageVariantWorker imageVariantWorker;
-    private final VideoThumbnailWorker videoThumbnailWorker;
-    private final PdfPreviewWorker pdfPreviewWorker;
-    private final DocPreviewWorker docPreviewWorker;
-
-    private static final String ON_MESSAGE = "onMessage";
-    private static final String IMAGE_QUEUE = "image:variant:queue";
-    private static final String PDF_QUEUE = "pdf:preview:queue";
-    private static final String DOC_QUEUE = "doc:preview:queue";
-    private static final String VIDEO_QUEUE = "video:thumbnail:queue";
-
     @Bean
     public RedisTemplate<String, Object> redisTemplate(RedisConnectionFactory connectionFactory) {
         RedisTemplate<String, Object> template = new RedisTemplate<>();
@@ -47,38 +33,18 @@ public class RedisConfig {
     }
 
     /**
-     * Redis pub/sub listener configuration
+     * Consumer-group reader for the job streams. Each read takes a single entry so a
+     * busy instance leaves the rest of the backlog to other replicas.
      */
     @Bean
-    public RedisMessageListenerContainer redisContainer(RedisConnectionFactory connectionFactory) {
-        RedisMessageListenerContainer container = new RedisMessageListenerContainer();
-        container.setConnectionFactory(connectionFactory);
-
-        container.addMessageListener(imageVariantWorker, new PatternTopic(IMAGE_QUEUE));
-        container.addMessageListener(videoThumbnailWorker, new PatternTopic(VIDEO_QUEUE));
-        container.addMessageListener(pdfPreviewWorker, new PatternTopic(PDF_QUEUE));
-        container.addMessageListener(docPreviewWorker, new PatternTopic(DOC_QUEUE));
-
-        return container;
-    }
-
-    @Bean
-    public MessageListenerAdapter imagelistenerAdapter(ImageVariantWorker worker) {
-        return new MessageListenerAdapter(worker, ON_MESSAGE);
-    }
-
-    @Bean
-    public MessageListenerAdapter videoListenerAdapter(VideoThumbnailWorker worker) {
-        return new MessageListenerAdapter(worker, ON_MESSAGE);
-    }
-
-    @Bean
-    public MessageListenerAdapter pdfListenerAdapter(PdfPreviewWorker worker) {
-        return new MessageListenerAdapter(worker, ON_MESSAGE);
-    }
-
-    @Bean
-    public MessageListenerAdapter docListenerAdapter(DocPreviewWorker worker) {
-        return new MessageListenerAdapter(worker, ON_MESSAGE);
+    public StreamMessageListenerContainer<String, MapRecord<String, String, String>> jobStreamContainer(
+            RedisConnectionFactory connectionFactory) {
+        StreamMessageListenerContainerOptions<String, MapRecord<String, String, String>> options =
+                StreamMessageListenerContainerOptions.builder()
+                        .pollTimeout(Duration.ofSeconds(2))
+                        .batchSize(1)
+                        .errorHandler(e -> log.error("Job stream read failed: {}", e.getMessage()))
+                        .build();
+        return StreamMessageListenerContainer.create(connectionFactory, options);
     }
 }
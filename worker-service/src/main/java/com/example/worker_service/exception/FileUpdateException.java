@@ -0,0 +1,7 @@
+package com.example.worker_service.exception;
+
+public class FileUpdateException extends RuntimeException {
+    public FileUpdateException(String message, Throwable cause) {
+        super(message, cause);
+    }
+}
@@ -18,4 +18,5 @@ public class FileJob {
     private String objectKey;
     private String mimeType;
     private JobType jobType;
+    private Long size;
 }
\ No newline at end of file
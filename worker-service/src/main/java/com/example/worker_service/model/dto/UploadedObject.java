@@ -0,0 +1,7 @@
+package com.example.worker_service.model.dto;
+
+/**
+ * What storage acknowledged for an upload, kept so later steps need not ask again.
+ */
+public record UploadedObject(String objectKey, long size, String etag, String contentType) {
+}
@@ -5,118 +5,144 @@ import com.example.worker_service.model.dto.FileJob;
 import com.example.worker_service.model.dto.FileUpdateRequest;
 import com.example.worker_service.model.dto.FileVariantDto;
 import com.example.worker_service.model.enums.FileStatus;
+import com.example.worker_service.model.enums.JobType;
 import com.example.worker_service.util.UpdateInternalUtils;
 import com.example.worker_service.util.VariantUtils;
-import com.fasterxml.jackson.databind.ObjectMapper;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
-import org.springframework.data.redis.connection.Message;
-import org.springframework.data.redis.connection.MessageListener;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
-import javax.imageio.ImageIO;
 import java.awt.image.BufferedImage;
 import java.io.*;
 import java.nio.file.Files;
 import java.nio.file.Path;
+import java.time.Duration;
 import java.util.ArrayList;
+import java.util.Comparator;
 import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
 
 @Service
 @RequiredArgsConstructor
 @Slf4j
-public class DocPreviewWorker implements MessageListener {
+public class DocPreviewWorker implements JobWorker {
 
     private final MinioStorageService minioStorageService;
     private final UpdateInternalUtils updateInternalUtils;
-    private final ObjectMapper objectMapper;
     private final VariantUtils variantUtils;
+    private final MemoryBudget memoryBudget;
+    private final ProcessRunner processRunner;
+
+    @Value("${jobs.process.libreoffice.timeout}")
+    private Duration libreOfficeTimeout;
+
+    @Value("${jobs.process.libreoffice.cpu-timeout}")
+    private Duration libreOfficeCpuTimeout;
 
     private static final String TMP_DIR = "/tmp/preview";
 
     @Override
-    public void onMessage(Message message, byte[] pattern) {
-        try {
-            FileJob job = objectMapper.readValue(message.getBody(), FileJob.class);
-            log.info("Received preview job for fileId: {} ({})", job.getFileId(), job.getObjectKey());
-            processJob(job);
-        } catch (IOException e) {
-            log.error("Failed to process message: {}", e.getMessage(), e);
-        }
+    public JobType jobType() {
+        return JobType.DOCUMENT;
     }
 
-    private void processJob(FileJob job) {
+    @Override
+    public void process(FileJob job) {
+        log.info("Received preview job for fileId: {} ({})", job.getFileId(), job.getObjectKey());
         String status = FileStatus.COMPLETED.name();
         List<FileVariantDto> variants = new ArrayList<>();
 
+        Path workDir = null;
         try {
+            // One directory per job: concurrent conversions must not pick up each other's output
             Files.createDirectories(Path.of(TMP_DIR));
-            Path inputFile = Path.of(TMP_DIR, job.getFileId().toString());
-            Path previewFile = Path.of(TMP_DIR, job.getFileId() + "_preview.png");
+            workDir = Files.createTempDirectory(Path.of(TMP_DIR), job.getFileId().toString());
+            Path inputFile = workDir.resolve("source");
+            Path previewFile = workDir.resolve("preview.png");
 
             try (InputStream in = minioStorageService.getObject(job.getObjectKey())) {
                 Files.copy(in, inputFile);
             }
 
-            BufferedImage preview = generatePreview(job.getMimeType(), inputFile.toFile(), previewFile.toFile());
-            if (preview != null) {
-                variants = variantUtils.generateImageVariants(job.getObjectKey(), preview);
+            if (generatePreview(job.getMimeType(), workDir, inputFile, previewFile)) {
+                try (MemoryBudget.Reservation reservation =
+                        memoryBudget.reserve(VariantUtils.estimateFootprint(previewFile))) {
+                    BufferedImage preview = VariantUtils.readSubsampled(previewFile);
+                    variants = variantUtils.generateImageVariants(job, preview);
+                }
             }
 
-            Files.deleteIfExists(inputFile);
-            Files.deleteIfExists(previewFile);
-
         } catch (Exception e) {
-            status = FileStatus.FAILED.name();
-            log.error("Error generating preview for fileId {}: {}", job.getFileId(), e.getMessage(), e);
+            if (JobWorker.wasInterrupted(e)) {
+                log.warn("Preview job for fileId {} interrupted, leaving it for redelivery", job.getFileId());
+            } else {
+                status = FileStatus.FAILED.name();
+                log.error("Error generating preview for fileId {}: {}", job.getFileId(), e.getMessage(), e);
+            }
         } finally {
-            FileUpdateRequest update = FileUpdateRequest.builder()
-                    .fileId(job.getFileId())
-                    .status(status)
-                    .variants(variants)
-                    .build();
-            updateInternalUtils.updateInternal(job, update);
+            deleteRecursively(workDir);
+            if (!Thread.currentThread().isInterrupted()) {
+                FileUpdateRequest update = FileUpdateRequest.builder()
+                        .fileId(job.getFileId())
+                        .status(status)
+                        .variants(variants)
+                        .build();
+                updateInternalUtils.updateInternal(job, update);
+            }
         }
     }
 
-    private BufferedImage generatePreview(String mimeType, File inputFile, File previewFile) throws Exception {
+    private boolean generatePreview(String mimeType, Path workDir, Path inputFile, Path previewFile) throws Exception {
         if (mimeType == null)
-            return null;
+            return false;
 
         // Handle LibreOffice-compatible docs
-        convertWithLibreOffice(inputFile, previewFile);
-        if (previewFile.exists()) {
-            return ImageIO.read(previewFile);
-        }
-        return null;
+        convertWithLibreOffice(workDir, inputFile, previewFile);
+        return Files.exists(previewFile);
     }
 
-    private void convertWithLibreOffice(File inputFile, File outputFile) throws IOException, InterruptedException {
-        File outputDir = outputFile.getParentFile();
-        String command = String.format(
-                "libreoffice --headless --convert-to png --outdir %s %s",
-                outputDir.getAbsolutePath(),
-                inputFile.getAbsolutePath()
-        );
-
-        log.info("Running LibreOffice command: {}", command);
-        Process process = Runtime.getRuntime().exec(command);
-        int exitCode = process.waitFor();
-
-        if (exitCode == 0) {
+    private void convertWithLibreOffice(Path workDir, Path inputFile, Path outputFile)
+            throws IOException, InterruptedException {
+        Path outputDir = Files.createDirectories(workDir.resolve("out"));
+        List<String> command = List.of(
+                "libreoffice", "--headless",
+                // A private profile; instances sharing one refuse to start or hand work to each other
+                "-env:UserInstallation=" + workDir.resolve("profile").toUri(),
+                "--convert-to", "png",
+                "--outdir", outputDir.toString(),
+                inputFile.toString());
+
+        log.info("Running LibreOffice command: {}", String.join(" ", command));
+        ProcessRunner.Result result = processRunner.run("libreoffice", command,
+                libreOfficeTimeout, libreOfficeCpuTimeout, line -> { });
+
+        if (result.exitCode() == 0) {
             // LibreOffice creates file with same base name but .png extension
-            File[] pngs = outputDir.listFiles((dir, name) -> name.endsWith(".png"));
-            if (pngs != null && pngs.length > 0) {
-                Files.move(pngs[0].toPath(), outputFile.toPath());
-                log.info("LibreOffice conversion successful: {}", outputFile.getName());
-            } else {
-                log.warn("No PNG generated by LibreOffice for {}", inputFile.getName());
+            try (Stream<Path> pngs = Files.list(outputDir)) {
+                Optional<Path> png = pngs.filter(p -> p.toString().endsWith(".png")).findFirst();
+                if (png.isPresent()) {
+                    Files.move(png.get(), outputFile);
+                    log.info("LibreOffice conversion successful: {}", outputFile.getFileName());
+                } else {
+                    log.warn("No PNG generated by LibreOffice for {}", inputFile.getFileName());
+                }
             }
         } else {
-            try (BufferedReader br = new BufferedReader(new InputStreamReader(process.getErrorStream()))) {
-                br.lines().forEach(log::error);
-            }
-            throw new ConversionFailedException("LibreOffice conversion failed with exit code " + exitCode);
+            log.error("LibreOffice output:{}{}", System.lineSeparator(), result.outputTail());
+            throw new ConversionFailedException("LibreOffice conversion failed with exit code " + result.exitCode());
+        }
+    }
+
+    private static void deleteRecursively(Path dir) {
+        if (dir == null) {
+            return;
+        }
+        try (Stream<Path> paths = Files.walk(dir)) {
+            paths.sorted(Comparator.reverseOrder()).forEach(path -> path.toFile().delete());
+        } catch (IOException e) {
+            log.warn("Failed to clean up {}: {}", dir, e.getMessage());
         }
     }
 }
@@ -3,14 +3,14 @@ package com.example.worker_service.service;
 import java.awt.image.BufferedImage;
 import java.io.IOException;
 import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
 import java.util.ArrayList;
 import java.util.List;
 
-import javax.imageio.ImageIO;
-
 import org.springframework.beans.factory.annotation.Value;
-import org.springframework.data.redis.connection.Message;
-import org.springframework.data.redis.connection.MessageListener;
 import org.springframework.stereotype.Service;
 import org.springframework.web.client.RestTemplate;
 
@@ -18,9 +18,9 @@ import com.example.worker_service.model.dto.FileJob;
 import com.example.worker_service.model.dto.FileUpdateRequest;
 import com.example.worker_service.model.dto.FileVariantDto;
 import com.example.worker_service.model.enums.FileStatus;
+import com.example.worker_service.model.enums.JobType;
 import com.example.worker_service.util.UpdateInternalUtils;
 import com.example.worker_service.util.VariantUtils;
-import com.fasterxml.jackson.databind.ObjectMapper;
 
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
@@ -28,42 +28,75 @@ import lombok.extern.slf4j.Slf4j;
 @Service
 @RequiredArgsConstructor
 @Slf4j
-public class ImageVariantWorker implements MessageListener {
+public class ImageVariantWorker implements JobWorker {
 
     private final MinioStorageService minioStorageService;
     private final UpdateInternalUtils updateInternalUtils;
-    private final ObjectMapper objectMapper;
     private final VariantUtils variantUtils;
+    private final JobExecutor jobExecutor;
+    private final MemoryBudget memoryBudget;
 
 
     @Override
-    public void onMessage(Message message, byte[] pattern) {
-        try {
-            FileJob job = objectMapper.readValue(message.getBody(), FileJob.class);
-            log.info("Received job for object: {}", job.getObjectKey());
-            processJob(job);
-        } catch (IOException e) {
-            log.error("Failed to process Redis message: {}", e.getMessage(), e);
-        }
+    public JobType jobType() {
+        return JobType.IMAGE;
     }
 
-    private void processJob(FileJob job) {
+    @Override
+    public void process(FileJob job) {
+        log.info("Received job for object: {}", job.getObjectKey());
         String status = FileStatus.COMPLETED.name();
         List<FileVariantDto> variants = new ArrayList<>();
 
-        try (InputStream input = minioStorageService.getObject(job.getObjectKey())) {
-            BufferedImage original = ImageIO.read(input);
-            variants = variantUtils.generateImageVariants(job.getObjectKey(), original);
+        Path source = null;
+        try {
+            // Spool to disk so the reader can seek to the header and decode subsampled
+            source = Files.createTempFile("image-", null);
+            try (InputStream input = minioStorageService.getObject(job.getObjectKey())) {
+                Files.copy(input, source, StandardCopyOption.REPLACE_EXISTING);
+            }
+
+            Path file = source;
+            try (MemoryBudget.Reservation reservation = memoryBudget.reserve(VariantUtils.estimateFootprint(file))) {
+                BufferedImage original = jobExecutor.compute(() -> decode(file)).join();
+                variants = variantUtils.generateImageVariants(job, original);
+            }
         } catch (Exception e) {
-            status = FileStatus.FAILED.name();
-            log.error("Error generating image variants for fileId {}: {}", job.getFileId(), e.getMessage(), e);
+            if (JobWorker.wasInterrupted(e)) {
+                log.warn("Image job for fileId {} interrupted, leaving it for redelivery", job.getFileId());
+            } else {
+                status = FileStatus.FAILED.name();
+                log.error("Error generating image variants for fileId {}: {}", job.getFileId(), e.getMessage(), e);
+            }
         } finally {
-            FileUpdateRequest update = FileUpdateRequest.builder()
-                    .fileId(job.getFileId())
-                    .status(status)
-                    .variants(variants)
-                    .build();
-            updateInternalUtils.updateInternal(job, update);
+            deleteQuietly(source);
+            if (!Thread.currentThread().isInterrupted()) {
+                FileUpdateRequest update = FileUpdateRequest.builder()
+                        .fileId(job.getFileId())
+                        .status(status)
+                        .variants(variants)
+                        .build();
+                updateInternalUtils.updateInternal(job, update);
+            }
+        }
+    }
+
+    private static BufferedImage decode(Path file) {
+        try {
+            return VariantUtils.readSubsampled(file);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static void deleteQuietly(Path file) {
+        if (file == null) {
+            return;
+        }
+        try {
+            Files.deleteIfExists(file);
+        } catch (IOException e) {
+            log.warn("Failed to delete temp file {}: {}", file, e.getMessage());
         }
     }
 }
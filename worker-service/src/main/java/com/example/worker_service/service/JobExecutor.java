@@ -0,0 +1,235 @@
+package com.example.worker_service.service;
+
+import java.lang.management.ManagementFactory;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import com.example.worker_service.model.enums.JobType;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.jvm.ExecutorServiceMetrics;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Runs jobs on virtual threads behind one bulkhead per {@link JobType}, so a burst
+ * of videos cannot take the slots image jobs need. Each bulkhead admits up to its
+ * concurrency limit running plus as many waiting; once both are taken,
+ * {@link #submit} blocks the stream reader and leaves the backlog in Redis for other
+ * replicas.
+ *
+ * Job threads spend most of their time on storage, HTTP and subprocesses. CPU-bound
+ * stages such as resizing and encoding go to a platform pool sized to the cores via
+ * {@link #compute}, so they never oversubscribe the machine however many jobs are
+ * in flight.
+ *
+ * Stages started from a job, directly or from one another, are tallied against it
+ * and the heap they allocate is recorded per job as {@code jobs.allocated}. The JDK
+ * only reports allocation for platform threads, so this covers the CPU stages,
+ * which is where decoding, resizing and encoding allocate.
+ */
+@Component
+@Slf4j
+public class JobExecutor {
+    private static final long SHUTDOWN_GRACE_SECONDS = 30;
+    private static final com.sun.management.ThreadMXBean THREADS =
+            (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+    /** Allocation tally of the job the current thread is working for. */
+    private static final ThreadLocal<LongAdder> JOB_ALLOCATION = new ThreadLocal<>();
+
+    private final ExecutorService jobThreads = Executors.newThreadPerTaskExecutor(
+            Thread.ofVirtual().name("job-", 0).factory());
+    private final ExecutorService stageThreads = Executors.newThreadPerTaskExecutor(
+            Thread.ofVirtual().name("stage-", 0).factory());
+    private final ExecutorService cpuPool;
+    private final Map<JobType, Bulkhead> bulkheads = new EnumMap<>(JobType.class);
+
+    public JobExecutor(MeterRegistry meterRegistry,
+            @Value("${jobs.concurrency.image}") int imageConcurrency,
+            @Value("${jobs.concurrency.pdf}") int pdfConcurrency,
+            @Value("${jobs.concurrency.document}") int documentConcurrency,
+            @Value("${jobs.concurrency.video}") int videoConcurrency) {
+        int cores = Runtime.getRuntime().availableProcessors();
+        this.cpuPool = ExecutorServiceMetrics.monitor(meterRegistry,
+                Executors.newFixedThreadPool(cores, Thread.ofPlatform().name("cpu-", 0).daemon(true).factory()),
+                "worker.cpu");
+
+        bulkheads.put(JobType.IMAGE, new Bulkhead(JobType.IMAGE, imageConcurrency, meterRegistry));
+        bulkheads.put(JobType.PDF, new Bulkhead(JobType.PDF, pdfConcurrency, meterRegistry));
+        bulkheads.put(JobType.DOCUMENT, new Bulkhead(JobType.DOCUMENT, documentConcurrency, meterRegistry));
+        bulkheads.put(JobType.VIDEO, new Bulkhead(JobType.VIDEO, videoConcurrency, meterRegistry));
+    }
+
+    /**
+     * Start a job once its bulkhead has room, waiting for it if necessary.
+     * {@code onSuccess} runs on the job thread after the job returns normally, unless
+     * the job was interrupted.
+     *
+     * @return false if the job was not started because the worker is shutting down
+     */
+    public boolean submit(JobType type, Runnable job, Runnable onSuccess) {
+        Bulkhead bulkhead = bulkheads.get(type);
+        try {
+            bulkhead.admission.acquire();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            bulkhead.rejected.increment();
+            return false;
+        }
+        return start(bulkhead, job, onSuccess);
+    }
+
+    /**
+     * Start a job only if its bulkhead has room right now.
+     *
+     * @return false if the job was rejected
+     */
+    public boolean trySubmit(JobType type, Runnable job, Runnable onSuccess) {
+        Bulkhead bulkhead = bulkheads.get(type);
+        if (!bulkhead.admission.tryAcquire()) {
+            bulkhead.rejected.increment();
+            return false;
+        }
+        return start(bulkhead, job, onSuccess);
+    }
+
+    /** How many more jobs of this type would be admitted right now. */
+    public int available(JobType type) {
+        return bulkheads.get(type).admission.availablePermits();
+    }
+
+    /** Run a CPU-bound stage on the core-sized pool. */
+    public <T> CompletableFuture<T> compute(Supplier<T> stage) {
+        return CompletableFuture.supplyAsync(stage, cpu());
+    }
+
+    /** The core-sized pool, for chaining CPU-bound stages. */
+    public Executor cpu() {
+        return task -> cpuPool.execute(onBehalfOfJob(task));
+    }
+
+    /**
+     * Virtual threads for blocking stages a job fans out, such as concurrent uploads.
+     * Kept apart from the job threads so running jobs can still use it while those
+     * shut down.
+     */
+    public Executor io() {
+        return task -> stageThreads.execute(onBehalfOfJob(task));
+    }
+
+    /** Carry the submitting job's allocation tally over to the thread that runs {@code task}. */
+    private static Runnable onBehalfOfJob(Runnable task) {
+        LongAdder tally = JOB_ALLOCATION.get();
+        if (tally == null) {
+            return task;
+        }
+        return () -> {
+            LongAdder previous = JOB_ALLOCATION.get();
+            JOB_ALLOCATION.set(tally);
+            long before = THREADS.getCurrentThreadAllocatedBytes();
+            try {
+                task.run();
+            } finally {
+                long after = THREADS.getCurrentThreadAllocatedBytes();
+                if (before >= 0 && after >= 0) {
+                    tally.add(after - before);
+                }
+                JOB_ALLOCATION.set(previous);
+            }
+        };
+    }
+
+    private boolean start(Bulkhead bulkhead, Runnable job, Runnable onSuccess) {
+        try {
+            jobThreads.execute(() -> run(bulkhead, job, onSuccess));
+            return true;
+        } catch (RejectedExecutionException e) {
+            bulkhead.admission.release();
+            bulkhead.rejected.increment();
+            return false;
+        }
+    }
+
+    private void run(Bulkhead bulkhead, Runnable job, Runnable onSuccess) {
+        try {
+            bulkhead.running.acquire();
+            bulkhead.active.incrementAndGet();
+            LongAdder allocated = new LongAdder();
+            JOB_ALLOCATION.set(allocated);
+            try {
+                job.run();
+                if (Thread.currentThread().isInterrupted()) {
+                    log.warn("{} job interrupted, leaving it pending for redelivery", bulkhead.type);
+                } else {
+                    onSuccess.run();
+                }
+            } catch (RuntimeException e) {
+                log.error("{} job failed and stays pending for redelivery: {}", bulkhead.type, e.getMessage(), e);
+            } finally {
+                JOB_ALLOCATION.remove();
+                bulkhead.allocated.record(allocated.sum());
+                bulkhead.active.decrementAndGet();
+                bulkhead.running.release();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } finally {
+            bulkhead.admission.release();
+        }
+    }
+
+    @PreDestroy
+    void shutdown() throws InterruptedException {
+        jobThreads.shutdown();
+        if (!jobThreads.awaitTermination(SHUTDOWN_GRACE_SECONDS, TimeUnit.SECONDS)) {
+            log.warn("Interrupting jobs still running after {}s; they will be redelivered", SHUTDOWN_GRACE_SECONDS);
+            jobThreads.shutdownNow();
+        }
+        stageThreads.shutdownNow();
+        cpuPool.shutdownNow();
+    }
+
+    private static final class Bulkhead {
+        private final JobType type;
+        private final Semaphore running;
+        private final Semaphore admission;
+        private final AtomicInteger active = new AtomicInteger();
+        private final Counter rejected;
+        private final DistributionSummary allocated;
+
+        private Bulkhead(JobType type, int concurrency, MeterRegistry meterRegistry) {
+            int capacity = 2 * concurrency;
+            this.type = type;
+            this.running = new Semaphore(concurrency);
+            this.admission = new Semaphore(capacity);
+            this.rejected = meterRegistry.counter("jobs.rejected", "type", type.name());
+            this.allocated = DistributionSummary.builder("jobs.allocated")
+                    .baseUnit("bytes")
+                    .tag("type", type.name())
+                    .register(meterRegistry);
+
+            Gauge.builder("jobs.active", active, AtomicInteger::get)
+                    .tag("type", type.name())
+                    .register(meterRegistry);
+            Gauge.builder("jobs.queued", this, b -> capacity - b.admission.availablePermits() - b.active.get())
+                    .tag("type", type.name())
+                    .register(meterRegistry);
+        }
+    }
+}
@@ -0,0 +1,296 @@
+package com.example.worker_service.service;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.core.NestedExceptionUtils;
+import org.springframework.dao.DataAccessException;
+import org.springframework.data.domain.Range;
+import org.springframework.data.redis.connection.stream.Consumer;
+import org.springframework.data.redis.connection.stream.MapRecord;
+import org.springframework.data.redis.connection.stream.PendingMessage;
+import org.springframework.data.redis.connection.stream.ReadOffset;
+import org.springframework.data.redis.connection.stream.StreamOffset;
+import org.springframework.data.redis.connection.stream.StreamRecords;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.stream.StreamMessageListenerContainer;
+import org.springframework.data.redis.stream.StreamMessageListenerContainer.StreamReadRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import com.example.worker_service.exception.FileUpdateException;
+import com.example.worker_service.exception.StorageException;
+import com.example.worker_service.model.dto.FileJob;
+import com.example.worker_service.model.dto.FileUpdateRequest;
+import com.example.worker_service.model.enums.FileStatus;
+import com.example.worker_service.model.enums.JobType;
+import com.example.worker_service.util.UpdateInternalUtils;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import io.lettuce.core.StreamMessage;
+import io.lettuce.core.XAutoClaimArgs;
+import io.lettuce.core.api.async.RedisStreamAsyncCommands;
+import io.lettuce.core.models.stream.ClaimedMessages;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Reads jobs from the per-type Redis streams as a member of the {@code workers}
+ * consumer group. Each entry is delivered to one replica only, handed to the
+ * {@link JobExecutor} and acknowledged once its worker returns, which is after
+ * file-service has accepted the outcome, so a job is never lost while no worker is
+ * running or file-service is unavailable.
+ *
+ * Entries left pending by a replica that died mid-job are taken over with
+ * XAUTOCLAIM once they have been idle for {@code jobs.claim-idle}, which must stay
+ * above the longest job or live work gets processed twice. An entry delivered more
+ * than {@link #MAX_DELIVERIES} times keeps crashing its consumer and is failed
+ * instead of retried.
+ */
+@Component
+@Lazy(false)
+@Slf4j
+public class JobStreamConsumer {
+    static final String GROUP = "workers";
+    private static final String JOB_FIELD = "job";
+    private static final String CURSOR_START = "0-0";
+    private static final int MAX_DELIVERIES = 5;
+    private static final int CLAIM_BATCH = 50;
+    private static final Duration COMMAND_TIMEOUT = Duration.ofSeconds(10);
+    private static final Map<JobType, String> STREAMS = Map.of(
+            JobType.IMAGE, "image:variant:queue",
+            JobType.VIDEO, "video:thumbnail:queue",
+            JobType.PDF, "pdf:preview:queue",
+            JobType.DOCUMENT, "doc:preview:queue");
+
+    private final StreamMessageListenerContainer<String, MapRecord<String, String, String>> container;
+    private final StringRedisTemplate redisTemplate;
+    private final ObjectMapper objectMapper;
+    private final UpdateInternalUtils updateInternalUtils;
+    private final JobExecutor jobExecutor;
+    private final Map<JobType, JobWorker> workers;
+    private final Consumer consumer;
+    private final Duration claimIdle;
+    private final Set<String> groupsReady = ConcurrentHashMap.newKeySet();
+
+    public JobStreamConsumer(
+            StreamMessageListenerContainer<String, MapRecord<String, String, String>> container,
+            StringRedisTemplate redisTemplate,
+            ObjectMapper objectMapper,
+            UpdateInternalUtils updateInternalUtils,
+            JobExecutor jobExecutor,
+            List<JobWorker> workers,
+            @Value("${jobs.consumer-name}") String consumerName,
+            @Value("${jobs.claim-idle}") Duration claimIdle) {
+        this.container = container;
+        this.redisTemplate = redisTemplate;
+        this.objectMapper = objectMapper;
+        this.updateInternalUtils = updateInternalUtils;
+        this.jobExecutor = jobExecutor;
+        this.workers = workers.stream().collect(Collectors.toMap(JobWorker::jobType, Function.identity()));
+        this.consumer = Consumer.from(GROUP, consumerName);
+        this.claimIdle = claimIdle;
+    }
+
+    @PostConstruct
+    void subscribe() {
+        STREAMS.forEach((type, stream) -> {
+            ensureGroup(stream);
+            container.register(
+                    StreamReadRequest.builder(StreamOffset.create(stream, ReadOffset.lastConsumed()))
+                            .consumer(consumer)
+                            .autoAcknowledge(false)
+                            .cancelOnError(e -> false)
+                            .build(),
+                    record -> handle(type, record));
+        });
+        // The container is not auto-started; reads are only scheduled once it runs
+        container.start();
+        log.info("Consuming job streams as {}", consumer.getName());
+    }
+
+    /** Stop reading before the executor shuts down, so no new jobs arrive mid-drain. */
+    @PreDestroy
+    void unsubscribe() {
+        container.stop();
+    }
+
+    /**
+     * Take over entries whose consumer stopped acknowledging, usually because the
+     * replica crashed or was redeployed mid-job.
+     */
+    @Scheduled(fixedDelayString = "${jobs.reclaim-interval:30s}")
+    public void reclaim() {
+        STREAMS.forEach((type, stream) -> {
+            try {
+                ensureGroup(stream);
+                reclaim(type, stream);
+            } catch (RuntimeException e) {
+                log.warn("Reclaim on {} failed: {}", stream, e.getMessage());
+            }
+        });
+    }
+
+    private void reclaim(JobType type, String stream) {
+        // Every claim counts as a delivery, so only take what the bulkhead can start now
+        int free = Math.min(CLAIM_BATCH, jobExecutor.available(type));
+        if (free == 0) {
+            return;
+        }
+        List<MapRecord<String, String, String>> claimed = autoClaim(stream, free);
+        if (claimed.isEmpty()) {
+            return;
+        }
+
+        Range<String> ids = Range.closed(claimed.get(0).getId().getValue(),
+                claimed.get(claimed.size() - 1).getId().getValue());
+        Map<String, Long> deliveries = redisTemplate.opsForStream()
+                .pending(stream, consumer, ids, claimed.size())
+                .stream()
+                .collect(Collectors.toMap(PendingMessage::getIdAsString, PendingMessage::getTotalDeliveryCount));
+
+        log.info("Reclaimed {} stalled jobs from {}", claimed.size(), stream);
+        for (MapRecord<String, String, String> record : claimed) {
+            if (deliveries.getOrDefault(record.getId().getValue(), 0L) > MAX_DELIVERIES) {
+                giveUp(record);
+            } else {
+                handleReclaimed(type, record);
+            }
+        }
+    }
+
+    private void handle(JobType type, MapRecord<String, String, String> record) {
+        FileJob job = readJob(record);
+        if (job == null) {
+            acknowledge(record);
+            return;
+        }
+        jobExecutor.submit(type, () -> workers.get(type).process(job), () -> acknowledge(record));
+    }
+
+    /**
+     * Reclaimed entries must not hold up the scheduler, so they only start if their
+     * bulkhead has room. Claims are sized to the free slots, so a rejection here only
+     * happens when the stream reader filled them in between.
+     */
+    private void handleReclaimed(JobType type, MapRecord<String, String, String> record) {
+        FileJob job = readJob(record);
+        if (job == null) {
+            acknowledge(record);
+            return;
+        }
+        if (!jobExecutor.trySubmit(type, () -> workers.get(type).process(job), () -> acknowledge(record))) {
+            log.debug("Bulkhead for {} is full, leaving reclaimed job {} pending", type, record.getId());
+        }
+    }
+
+    private void acknowledge(MapRecord<String, String, String> record) {
+        redisTemplate.opsForStream().acknowledge(GROUP, record);
+    }
+
+    private void giveUp(MapRecord<String, String, String> record) {
+        FileJob job = readJob(record);
+        if (job != null) {
+            log.error("Job {} for fileId {} exceeded {} deliveries, marking it failed",
+                    record.getId(), job.getFileId(), MAX_DELIVERIES);
+            try {
+                updateInternalUtils.updateInternal(job, FileUpdateRequest.builder()
+                        .fileId(job.getFileId())
+                        .status(FileStatus.FAILED.name())
+                        .variants(List.of())
+                        .build());
+            } catch (FileUpdateException e) {
+                // Keep it pending so the next reclaim reports it again
+                log.warn("Could not mark job {} failed: {}", record.getId(), e.getMessage());
+                return;
+            }
+        }
+        acknowledge(record);
+    }
+
+    private FileJob readJob(MapRecord<String, String, String> record) {
+        String payload = record.getValue().get(JOB_FIELD);
+        if (payload == null) {
+            log.error("Job {} on {} has no payload", record.getId(), record.getStream());
+            return null;
+        }
+        try {
+            return objectMapper.readValue(payload, FileJob.class);
+        } catch (IOException e) {
+            log.error("Failed to read job {}: {}", record.getId(), e.getMessage());
+            return null;
+        }
+    }
+
+    /** Spring Data Redis has no XAUTOCLAIM yet, so this goes through the Lettuce connection. */
+    @SuppressWarnings("unchecked")
+    private List<MapRecord<String, String, String>> autoClaim(String stream, int count) {
+        XAutoClaimArgs<byte[]> args = XAutoClaimArgs.Builder
+                .xautoclaim(io.lettuce.core.Consumer.from(bytes(GROUP), bytes(consumer.getName())),
+                        claimIdle, CURSOR_START)
+                .count(count);
+
+        ClaimedMessages<byte[], byte[]> claimed = redisTemplate.execute((RedisCallback<ClaimedMessages<byte[], byte[]>>) connection -> {
+            RedisStreamAsyncCommands<byte[], byte[]> commands =
+                    (RedisStreamAsyncCommands<byte[], byte[]>) connection.getNativeConnection();
+            try {
+                return commands.xautoclaim(bytes(stream), args)
+                        .get(COMMAND_TIMEOUT.toMillis(), TimeUnit.MILLISECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new StorageException("Interrupted while reclaiming " + stream, e);
+            } catch (ExecutionException | TimeoutException e) {
+                throw new StorageException("XAUTOCLAIM failed on " + stream, e);
+            }
+        });
+
+        return claimed.getMessages().stream()
+                .map(message -> toRecord(stream, message))
+                .toList();
+    }
+
+    private MapRecord<String, String, String> toRecord(String stream, StreamMessage<byte[], byte[]> message) {
+        Map<String, String> body = new HashMap<>();
+        message.getBody().forEach((field, value) -> body.put(
+                new String(field, StandardCharsets.UTF_8), new String(value, StandardCharsets.UTF_8)));
+        return StreamRecords.newRecord().in(stream).withId(message.getId()).ofMap(body);
+    }
+
+    private void ensureGroup(String stream) {
+        if (groupsReady.contains(stream)) {
+            return;
+        }
+        try {
+            // Start from the beginning so jobs queued before the first worker came up are picked up
+            redisTemplate.execute((RedisCallback<String>) connection -> connection.streamCommands()
+                    .xGroupCreate(bytes(stream), GROUP, ReadOffset.from(CURSOR_START), true));
+            groupsReady.add(stream);
+        } catch (DataAccessException e) {
+            String reason = NestedExceptionUtils.getMostSpecificCause(e).getMessage();
+            if (reason != null && reason.startsWith("BUSYGROUP")) {
+                groupsReady.add(stream);
+            } else {
+                log.warn("Could not create consumer group on {}: {}", stream, reason);
+            }
+        }
+    }
+
+    private static byte[] bytes(String value) {
+        return value.getBytes(StandardCharsets.UTF_8);
+    }
+}
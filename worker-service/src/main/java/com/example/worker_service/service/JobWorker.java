@@ -0,0 +1,40 @@
+package com.example.worker_service.service;
+
+import java.io.InterruptedIOException;
+import java.net.SocketTimeoutException;
+import java.nio.channels.ClosedByInterruptException;
+
+import com.example.worker_service.model.dto.FileJob;
+import com.example.worker_service.model.enums.JobType;
+
+/**
+ * Processes one kind of job taken from the job streams. Implementations report the
+ * outcome to file-service themselves; returning normally means the job is done and
+ * may be acknowledged, throwing leaves it pending for redelivery. A report
+ * file-service did not accept must therefore throw, as
+ * {@code UpdateInternalUtils#updateInternal} does.
+ *
+ * A job interrupted by shutdown is not an outcome: workers must neither report it
+ * as failed nor clear the interrupt, so the executor leaves it pending as well.
+ */
+public interface JobWorker {
+
+    JobType jobType();
+
+    void process(FileJob job);
+
+    /**
+     * Whether {@code e} or the thread state says the job was interrupted. Restores the
+     * interrupt flag if the exception, or one it wraps, consumed it.
+     */
+    static boolean wasInterrupted(Throwable e) {
+        for (Throwable cause = e; cause != null; cause = cause.getCause()) {
+            if (cause instanceof InterruptedException
+                    || cause instanceof ClosedByInterruptException
+                    || (cause instanceof InterruptedIOException && !(cause instanceof SocketTimeoutException))) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        return Thread.currentThread().isInterrupted();
+    }
+}
@@ -0,0 +1,104 @@
+package com.example.worker_service.service;
+
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Worker-wide heap budget for the in-memory stages of jobs: decoded images, rendered
+ * pages and their variants. A job estimates its peak footprint before decoding and
+ * holds a {@link Reservation} of that size while it works, so concurrent jobs wait
+ * for each other instead of running the container out of memory together.
+ *
+ * Jobs estimated above {@code jobs.memory.large-fraction} of the budget go through a
+ * single-file lane first, so oversized originals queue behind one another rather
+ * than starving every small job of permits. An estimate larger than the whole
+ * budget is capped to it and simply runs alone.
+ */
+@Component
+@Slf4j
+public class MemoryBudget {
+    private static final long PERMIT_BYTES = 1024;
+
+    private final Semaphore permits;
+    private final Semaphore largeLane = new Semaphore(1, true);
+    private final int totalPermits;
+    private final long largeThreshold;
+    private final AtomicLong reserved = new AtomicLong();
+    private final Counter oversized;
+
+    public MemoryBudget(MeterRegistry meterRegistry,
+            @Value("${jobs.memory.heap-fraction}") double heapFraction,
+            @Value("${jobs.memory.large-fraction}") double largeFraction) {
+        long budget = (long) (Runtime.getRuntime().maxMemory() * heapFraction);
+        this.totalPermits = (int) Math.min(Integer.MAX_VALUE, budget / PERMIT_BYTES);
+        this.permits = new Semaphore(totalPermits, true);
+        this.largeThreshold = (long) (budget * largeFraction);
+        this.oversized = meterRegistry.counter("jobs.memory.oversized");
+
+        Gauge.builder("jobs.memory.budget", () -> (double) totalPermits * PERMIT_BYTES)
+                .baseUnit("bytes")
+                .register(meterRegistry);
+        Gauge.builder("jobs.memory.reserved", reserved, AtomicLong::get)
+                .baseUnit("bytes")
+                .register(meterRegistry);
+        Gauge.builder("jobs.memory.waiting", permits, Semaphore::getQueueLength)
+                .register(meterRegistry);
+
+        log.info("Job memory budget {} MB, large-job threshold {} MB",
+                budget / (1024 * 1024), largeThreshold / (1024 * 1024));
+    }
+
+    /** Block until {@code bytes} of the budget are available and hold them. */
+    public Reservation reserve(long bytes) throws InterruptedException {
+        boolean large = bytes > largeThreshold;
+        int count = (int) Math.min(totalPermits, Math.max(1, (bytes + PERMIT_BYTES - 1) / PERMIT_BYTES));
+
+        if (large) {
+            oversized.increment();
+            largeLane.acquire();
+        }
+        try {
+            permits.acquire(count);
+        } catch (InterruptedException e) {
+            if (large) {
+                largeLane.release();
+            }
+            throw e;
+        }
+
+        reserved.addAndGet(count * PERMIT_BYTES);
+        return new Reservation(count, large);
+    }
+
+    public final class Reservation implements AutoCloseable {
+        private final int count;
+        private final boolean large;
+        private boolean released;
+
+        private Reservation(int count, boolean large) {
+            this.count = count;
+            this.large = large;
+        }
+
+        @Override
+        public void close() {
+            if (released) {
+                return;
+            }
+            released = true;
+            reserved.addAndGet(-count * PERMIT_BYTES);
+            permits.release(count);
+            if (large) {
+                largeLane.release();
+            }
+        }
+    }
+}
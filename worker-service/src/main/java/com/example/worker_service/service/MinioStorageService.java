@@ -1,15 +1,21 @@
 package com.example.worker_service.service;
 
 import java.io.InputStream;
+import java.time.Duration;
+
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
 import com.example.worker_service.exception.StorageException;
+import com.example.worker_service.model.dto.UploadedObject;
 
 import io.minio.GetObjectArgs;
+import io.minio.GetPresignedObjectUrlArgs;
 import io.minio.MinioClient;
+import io.minio.ObjectWriteResponse;
 import io.minio.PutObjectArgs;
 import io.minio.StatObjectArgs;
+import io.minio.http.Method;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 
@@ -36,23 +42,24 @@ public class MinioStorageService {
         }
     }
 
-    public void uploadVariantStream(InputStream is, long size, String objectKey, String variantKey, String contentType) {
-    try {
-        String minioPath = String.format("variants/%s/%s", variantKey, objectKey);
-        minioClient.putObject(
-                PutObjectArgs.builder()
-                        .bucket(bucket)
-                        .object(minioPath)
-                        .stream(is, size, -1)
-                        .contentType(contentType)
-                        .build());
-        log.info("Uploaded {} variant for {}", variantKey, objectKey);
-    } catch (Exception e) {
-        throw new StorageException("Failed to upload variant stream for " + objectKey, e);
+    public UploadedObject uploadVariantStream(InputStream is, long size, String objectKey, String variantKey, String contentType) {
+        try {
+            String minioPath = String.format("variants/%s/%s", variantKey, objectKey);
+            ObjectWriteResponse response = minioClient.putObject(
+                    PutObjectArgs.builder()
+                            .bucket(bucket)
+                            .object(minioPath)
+                            .stream(is, size, -1)
+                            .contentType(contentType)
+                            .build());
+            log.info("Uploaded {} variant for {}", variantKey, objectKey);
+            return new UploadedObject(minioPath, size, response.etag(), contentType);
+        } catch (Exception e) {
+            throw new StorageException("Failed to upload variant stream for " + objectKey, e);
+        }
     }
-}
 
-    /** Get size of variant */
+    /** Get size of variant. Only needed for jobs queued before they carried the original's size. */
     public long getSize(String objectKey, String variantKey) {
         try {
             String minioPath = "original".equals(variantKey) ? objectKey : String.format("variants/%s/%s", variantKey, objectKey);
@@ -63,6 +70,21 @@ public class MinioStorageService {
         }
     }
 
+    /** Short-lived GET URL, for tools that fetch ranges of an object themselves */
+    public String presignedGetUrl(String objectKey, Duration ttl) {
+        try {
+            return minioClient.getPresignedObjectUrl(
+                    GetPresignedObjectUrlArgs.builder()
+                            .method(Method.GET)
+                            .bucket(bucket)
+                            .object(objectKey)
+                            .expiry((int) ttl.toSeconds())
+                            .build());
+        } catch (Exception e) {
+            throw new StorageException("Failed to presign " + objectKey, e);
+        }
+    }
+
     /** Build public URL for variant */
     public String buildUrl(String objectKey, String variantKey) {
         if ("original".equals(variantKey)) {
@@ -3,22 +3,23 @@ package com.example.worker_service.service;
 import java.awt.image.BufferedImage;
 import java.io.IOException;
 import java.io.InputStream;
+import java.io.UncheckedIOException;
 import java.util.ArrayList;
 import java.util.List;
 
+import org.apache.pdfbox.io.MemoryUsageSetting;
 import org.apache.pdfbox.pdmodel.PDDocument;
+import org.apache.pdfbox.pdmodel.common.PDRectangle;
 import org.apache.pdfbox.rendering.PDFRenderer;
-import org.springframework.data.redis.connection.Message;
-import org.springframework.data.redis.connection.MessageListener;
 import org.springframework.stereotype.Service;
 
 import com.example.worker_service.model.dto.FileJob;
 import com.example.worker_service.model.dto.FileUpdateRequest;
 import com.example.worker_service.model.dto.FileVariantDto;
 import com.example.worker_service.model.enums.FileStatus;
+import com.example.worker_service.model.enums.JobType;
 import com.example.worker_service.util.UpdateInternalUtils;
 import com.example.worker_service.util.VariantUtils;
-import com.fasterxml.jackson.databind.ObjectMapper;
 
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
@@ -26,48 +27,71 @@ import lombok.extern.slf4j.Slf4j;
 @Service
 @RequiredArgsConstructor
 @Slf4j
-public class PdfPreviewWorker implements MessageListener {
+public class PdfPreviewWorker implements JobWorker {
 
     private final MinioStorageService minioStorageService;
     private final UpdateInternalUtils updateInternalUtils;
-    private final ObjectMapper objectMapper;
     private final VariantUtils variantUtils;
+    private final JobExecutor jobExecutor;
+    private final MemoryBudget memoryBudget;
 
+    private static final int PREVIEW_DPI = 150;
 
     @Override
-    public void onMessage(Message message, byte[] pattern) {
-        try {
-            FileJob job = objectMapper.readValue(message.getBody(), FileJob.class);
-            log.info("Received PDF job for fileId: {} ({})", job.getFileId(), job.getObjectKey());
-            processJob(job);
-        } catch (IOException e) {
-            log.error("Failed to process Redis PDF message: {}", e.getMessage(), e);
-        }
+    public JobType jobType() {
+        return JobType.PDF;
     }
 
-    private void processJob(FileJob job) {
+    @Override
+    public void process(FileJob job) {
+        log.info("Received PDF job for fileId: {} ({})", job.getFileId(), job.getObjectKey());
         String status = FileStatus.COMPLETED.name();
         List<FileVariantDto> variants = new ArrayList<>();
 
+        // Scratch file instead of heap for the parsed document; only the page raster counts against the budget
         try (InputStream input = minioStorageService.getObject(job.getObjectKey());
-             PDDocument document = PDDocument.load(input)) {
+             PDDocument document = PDDocument.load(input, MemoryUsageSetting.setupTempFileOnly())) {
 
-            PDFRenderer renderer = new PDFRenderer(document);
-            BufferedImage firstPage = renderer.renderImageWithDPI(0, 150);
+            try (MemoryBudget.Reservation reservation = memoryBudget.reserve(estimateFootprint(document))) {
+                // Rasterising is CPU-bound; the document itself was already read on this thread
+                BufferedImage firstPage = jobExecutor.compute(() -> renderFirstPage(document)).join();
 
-            variants = variantUtils.generateImageVariants(job.getObjectKey(), firstPage);
+                variants = variantUtils.generateImageVariants(job, firstPage);
+            }
 
         } catch (Exception e) {
-            status = FileStatus.FAILED.name();
-            log.error("Error generating PDF thumbnail for fileId {}: {}", job.getFileId(), e.getMessage(), e);
+            if (JobWorker.wasInterrupted(e)) {
+                log.warn("PDF job for fileId {} interrupted, leaving it for redelivery", job.getFileId());
+            } else {
+                status = FileStatus.FAILED.name();
+                log.error("Error generating PDF thumbnail for fileId {}: {}", job.getFileId(), e.getMessage(), e);
+            }
         } finally {
-            FileUpdateRequest update = FileUpdateRequest.builder()
-                    .fileId(job.getFileId())
-                    .status(status)
-                    .variants(variants)
-                    .build();
+            if (!Thread.currentThread().isInterrupted()) {
+                FileUpdateRequest update = FileUpdateRequest.builder()
+                        .fileId(job.getFileId())
+                        .status(status)
+                        .variants(variants)
+                        .build();
 
-            updateInternalUtils.updateInternal(job, update);
+                updateInternalUtils.updateInternal(job, update);
+            }
+        }
+    }
+
+    /** The first page renders at its crop box scaled from 72 points per inch to the preview DPI. */
+    private static long estimateFootprint(PDDocument document) {
+        PDRectangle page = document.getPage(0).getCropBox();
+        float scale = PREVIEW_DPI / 72f;
+        return VariantUtils.estimateFootprint(VariantUtils.pixelBytes(
+                Math.round(page.getWidth() * scale), Math.round(page.getHeight() * scale)));
+    }
+
+    private static BufferedImage renderFirstPage(PDDocument document) {
+        try {
+            return new PDFRenderer(document).renderImageWithDPI(0, PREVIEW_DPI);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
         }
     }
 }
@@ -0,0 +1,168 @@
+package com.example.worker_service.service;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.List;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+import java.util.regex.Pattern;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import com.example.worker_service.exception.ConversionFailedException;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Runs external converters such as ffmpeg and LibreOffice under a cap on concurrent
+ * processes. Output is drained as it is produced, so a chatty tool can never block
+ * on a full pipe, and the last lines are kept for error messages with URL query
+ * strings masked, since presigned signatures must not reach the logs. A process that
+ * exceeds its wall-clock or CPU allowance, or whose job is interrupted, is killed
+ * together with everything it spawned.
+ */
+@Component
+@Slf4j
+public class ProcessRunner {
+    private static final int TAIL_LINES = 50;
+    private static final long POLL_MILLIS = 250;
+    private static final Pattern URL_QUERY = Pattern.compile("(\\bhttps?://[^\\s?'\"]+)\\?[^\\s'\"]*");
+
+    private final Semaphore slots;
+    private final AtomicInteger running = new AtomicInteger();
+    private final MeterRegistry meterRegistry;
+
+    public ProcessRunner(MeterRegistry meterRegistry,
+            @Value("${jobs.process.max-concurrent}") int maxConcurrent) {
+        this.meterRegistry = meterRegistry;
+        this.slots = new Semaphore(maxConcurrent, true);
+
+        Gauge.builder("jobs.process.running", running, AtomicInteger::get)
+                .register(meterRegistry);
+        Gauge.builder("jobs.process.waiting", slots, Semaphore::getQueueLength)
+                .register(meterRegistry);
+    }
+
+    public record Result(int exitCode, String outputTail) {
+    }
+
+    /**
+     * Run {@code command} to completion, feeding each output line to {@code onLine}.
+     *
+     * @throws ConversionFailedException if a limit was exceeded and the process killed
+     */
+    public Result run(String name, List<String> command, Duration wallTimeout, Duration cpuTimeout,
+            Consumer<String> onLine) throws IOException, InterruptedException {
+        slots.acquire();
+        running.incrementAndGet();
+        long start = System.nanoTime();
+        String outcome = "failed";
+        try {
+            Process process = new ProcessBuilder(command).redirectErrorStream(true).start();
+            OutputTail tail = new OutputTail();
+            Thread drain = Thread.ofVirtual().name(name + "-output").start(() -> drain(process, tail, onLine));
+
+            try {
+                String exceeded = awaitExit(process, start, wallTimeout, cpuTimeout);
+                if (exceeded != null) {
+                    outcome = "timeout";
+                    killTree(process);
+                    meterRegistry.counter("jobs.process.killed", "name", name, "reason", exceeded).increment();
+                    throw new ConversionFailedException(String.format("%s exceeded its %s limit; last output:%n%s",
+                            name, exceeded, tail));
+                }
+            } catch (InterruptedException e) {
+                outcome = "cancelled";
+                killTree(process);
+                meterRegistry.counter("jobs.process.killed", "name", name, "reason", "cancelled").increment();
+                throw e;
+            }
+
+            drain.join(TimeUnit.SECONDS.toMillis(5));
+            int exitCode = process.exitValue();
+            outcome = exitCode == 0 ? "ok" : "failed";
+            return new Result(exitCode, tail.toString());
+        } finally {
+            Timer.builder("jobs.process.duration")
+                    .tag("name", name)
+                    .tag("outcome", outcome)
+                    .register(meterRegistry)
+                    .record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+            running.decrementAndGet();
+            slots.release();
+        }
+    }
+
+    /** @return the limit that was exceeded, or null once the process has exited */
+    private static String awaitExit(Process process, long start, Duration wallTimeout, Duration cpuTimeout)
+            throws InterruptedException {
+        long deadline = start + wallTimeout.toNanos();
+        while (!process.waitFor(POLL_MILLIS, TimeUnit.MILLISECONDS)) {
+            if (System.nanoTime() - deadline > 0) {
+                return "wall-clock";
+            }
+            if (cpuTime(process.toHandle()).compareTo(cpuTimeout) > 0) {
+                return "cpu";
+            }
+        }
+        return null;
+    }
+
+    /** CPU time of the process and its descendants, as far as the OS reports it. */
+    private static Duration cpuTime(ProcessHandle handle) {
+        Duration total = handle.info().totalCpuDuration().orElse(Duration.ZERO);
+        for (ProcessHandle child : (Iterable<ProcessHandle>) handle.descendants()::iterator) {
+            total = total.plus(child.info().totalCpuDuration().orElse(Duration.ZERO));
+        }
+        return total;
+    }
+
+    private static void killTree(Process process) {
+        process.toHandle().descendants().forEach(ProcessHandle::destroyForcibly);
+        process.destroyForcibly();
+    }
+
+    private static void drain(Process process, OutputTail tail, Consumer<String> onLine) {
+        try (BufferedReader output = new BufferedReader(
+                new InputStreamReader(process.getInputStream(), StandardCharsets.UTF_8))) {
+            String line;
+            while ((line = output.readLine()) != null) {
+                tail.add(line);
+                onLine.accept(line);
+            }
+        } catch (IOException e) {
+            // The stream closes under us when the process is killed
+            if (process.isAlive()) {
+                throw new UncheckedIOException(e);
+            }
+        }
+    }
+
+    /** The last {@link #TAIL_LINES} lines of output, with URL query strings masked. */
+    private static final class OutputTail {
+        private final ArrayDeque<String> lines = new ArrayDeque<>(TAIL_LINES);
+
+        synchronized void add(String line) {
+            if (lines.size() == TAIL_LINES) {
+                lines.removeFirst();
+            }
+            lines.addLast(URL_QUERY.matcher(line).replaceAll("$1?<redacted>"));
+        }
+
+        @Override
+        public synchronized String toString() {
+            return String.join(System.lineSeparator(), lines);
+        }
+    }
+}
@@ -1,87 +1,154 @@
 package com.example.worker_service.service;
 
 import java.awt.image.BufferedImage;
-import java.io.File;
 import java.io.IOException;
-import java.io.InputStream;
 import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
 import java.util.ArrayList;
 import java.util.List;
-import java.util.Map;
-
-import javax.imageio.ImageIO;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
 
 import org.springframework.beans.factory.annotation.Value;
-import org.springframework.data.redis.connection.Message;
-import org.springframework.data.redis.connection.MessageListener;
 import org.springframework.stereotype.Service;
-import org.springframework.web.client.RestClientException;
-import org.springframework.web.client.RestTemplate;
 
+import com.example.worker_service.exception.ConversionFailedException;
 import com.example.worker_service.model.dto.FileJob;
 import com.example.worker_service.model.dto.FileUpdateRequest;
 import com.example.worker_service.model.dto.FileVariantDto;
 import com.example.worker_service.model.enums.FileStatus;
+import com.example.worker_service.model.enums.JobType;
 import com.example.worker_service.util.UpdateInternalUtils;
 import com.example.worker_service.util.VariantUtils;
-import com.fasterxml.jackson.databind.ObjectMapper;
 
-import lombok.RequiredArgsConstructor;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
 import lombok.extern.slf4j.Slf4j;
 
 @Service
-@RequiredArgsConstructor
 @Slf4j
-public class VideoThumbnailWorker implements MessageListener {
+public class VideoThumbnailWorker implements JobWorker {
+    private static final String SEEK_TO = "00:00:01";
+    private static final Duration SOURCE_URL_TTL = Duration.ofMinutes(5);
+    private static final Pattern BYTES_READ = Pattern.compile("Statistics: (\\d+) bytes read");
 
     private final VariantUtils variantUtils;
     private final MinioStorageService minioStorageService;
     private final UpdateInternalUtils updateInternalUtils;
-    private final ObjectMapper objectMapper;
+    private final MemoryBudget memoryBudget;
+    private final ProcessRunner processRunner;
+    private final DistributionSummary bytesTransferred;
+
+    @Value("${jobs.process.ffmpeg.timeout}")
+    private Duration ffmpegTimeout;
+
+    @Value("${jobs.process.ffmpeg.cpu-timeout}")
+    private Duration ffmpegCpuTimeout;
+
+    public VideoThumbnailWorker(VariantUtils variantUtils, MinioStorageService minioStorageService,
+            UpdateInternalUtils updateInternalUtils, MemoryBudget memoryBudget, ProcessRunner processRunner,
+            MeterRegistry meterRegistry) {
+        this.variantUtils = variantUtils;
+        this.minioStorageService = minioStorageService;
+        this.updateInternalUtils = updateInternalUtils;
+        this.memoryBudget = memoryBudget;
+        this.processRunner = processRunner;
+        this.bytesTransferred = DistributionSummary.builder("jobs.video.bytes.read")
+                .baseUnit("bytes")
+                .register(meterRegistry);
+    }
 
     @Override
-    public void onMessage(Message message, byte[] pattern) {
-        try {
-            FileJob job = objectMapper.readValue(message.getBody(), FileJob.class);
-            log.info("Received video job for object: {}", job.getObjectKey());
-            processVideo(job);
-        } catch (IOException e) {
-            log.error("Failed to process video message: {}", e.getMessage(), e);
-        }
+    public JobType jobType() {
+        return JobType.VIDEO;
     }
 
-    private void processVideo(FileJob job) {
+    @Override
+    public void process(FileJob job) {
+        log.info("Received video job for object: {}", job.getObjectKey());
         String status = FileStatus.COMPLETED.name();
         List<FileVariantDto> variants = new ArrayList<>();
 
-        try (InputStream videoStream = minioStorageService.getObject(job.getObjectKey())) {
-            File tempVideo = File.createTempFile("video-", ".mp4");
-            Files.copy(videoStream, tempVideo.toPath(), java.nio.file.StandardCopyOption.REPLACE_EXISTING);
+        Path frame = null;
+        try {
+            frame = Files.createTempFile("frame-", ".png");
+            String source = minioStorageService.presignedGetUrl(job.getObjectKey(), SOURCE_URL_TTL);
 
-            File frame = File.createTempFile("frame-", ".png");
-            ProcessBuilder pb = new ProcessBuilder(
-                    "ffmpeg", "-y",
-                    "-i", tempVideo.getAbsolutePath(),
-                    "-ss", "00:00:01",
-                    "-vframes", "1",
-                    frame.getAbsolutePath());
-            pb.redirectErrorStream(true);
-            pb.start().waitFor();
+            long bytesRead = extractFrame(source, SEEK_TO, frame);
+            if (Files.size(frame) == 0) {
+                // Shorter than the seek point: take the first frame instead
+                bytesRead += extractFrame(source, "0", frame);
+            }
+            bytesTransferred.record(bytesRead);
+            log.info("Thumbnail for {} read {} of {} bytes", job.getObjectKey(), bytesRead, job.getSize());
 
-            BufferedImage thumbnail = ImageIO.read(frame);
-            variants = variantUtils.generateVideoThumbnailVariants(job.getObjectKey(), thumbnail);
+            try (MemoryBudget.Reservation reservation =
+                    memoryBudget.reserve(VariantUtils.estimateFootprint(frame))) {
+                BufferedImage thumbnail = VariantUtils.readSubsampled(frame);
+                variants = variantUtils.generateVideoThumbnailVariants(job, thumbnail);
+            }
 
         } catch (Exception e) {
-            status = FileStatus.FAILED.name();
-            log.error("Error generating video thumbnail for fileId {}: {}", job.getFileId(), e.getMessage(), e);
+            if (JobWorker.wasInterrupted(e)) {
+                log.warn("Video job for fileId {} interrupted, leaving it for redelivery", job.getFileId());
+            } else {
+                status = FileStatus.FAILED.name();
+                log.error("Error generating video thumbnail for fileId {}: {}", job.getFileId(), e.getMessage(), e);
+            }
         } finally {
-            FileUpdateRequest update = FileUpdateRequest.builder()
-                    .fileId(job.getFileId())
-                    .status(status)
-                    .variants(variants)
-                    .build();
-                    
-            updateInternalUtils.updateInternal(job, update);
+            deleteQuietly(frame);
+            if (!Thread.currentThread().isInterrupted()) {
+                FileUpdateRequest update = FileUpdateRequest.builder()
+                        .fileId(job.getFileId())
+                        .status(status)
+                        .variants(variants)
+                        .build();
+
+                updateInternalUtils.updateInternal(job, update);
+            }
+        }
+    }
+
+    /**
+     * Grab one frame with ffmpeg reading straight from storage. With {@code -ss} before
+     * {@code -i} ffmpeg seeks in the input, so over HTTP it range-requests the index
+     * and the few packets around the seek point rather than the whole file.
+     *
+     * @return bytes ffmpeg read from the source, from its verbose I/O statistics
+     */
+    private long extractFrame(String source, String seekTo, Path frame) throws IOException, InterruptedException {
+        List<String> command = List.of(
+                "ffmpeg", "-y", "-nostdin", "-v", "verbose",
+                "-ss", seekTo,
+                "-i", source,
+                "-frames:v", "1",
+                frame.toString());
+
+        LongAdder bytesRead = new LongAdder();
+        ProcessRunner.Result result = processRunner.run("ffmpeg", command, ffmpegTimeout, ffmpegCpuTimeout, line -> {
+            Matcher matcher = BYTES_READ.matcher(line);
+            if (matcher.find()) {
+                bytesRead.add(Long.parseLong(matcher.group(1)));
+            }
+        });
+
+        if (result.exitCode() != 0) {
+            throw new ConversionFailedException("ffmpeg exited with code " + result.exitCode()
+                    + System.lineSeparator() + result.outputTail());
+        }
+        return bytesRead.sum();
+    }
+
+    private static void deleteQuietly(Path file) {
+        if (file == null) {
+            return;
+        }
+        try {
+            Files.deleteIfExists(file);
+        } catch (IOException e) {
+            log.warn("Failed to delete temp file {}: {}", file, e.getMessage());
         }
     }
 }
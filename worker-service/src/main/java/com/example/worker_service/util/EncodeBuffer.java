@@ -0,0 +1,26 @@
+package com.example.worker_service.util;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.InputStream;
+
+/**
+ * A ByteArrayOutputStream whose contents can be read back in place, so an encoded
+ * variant goes to the uploader without the copy {@code toByteArray()} makes. Reset
+ * and reused between encodes by {@link VariantUtils}.
+ */
+public class EncodeBuffer extends ByteArrayOutputStream {
+
+    public EncodeBuffer(int initialSize) {
+        super(initialSize);
+    }
+
+    /** A stream over the current contents; valid until the buffer is reset. */
+    public synchronized InputStream asInputStream() {
+        return new ByteArrayInputStream(buf, 0, count);
+    }
+
+    public synchronized int capacity() {
+        return buf.length;
+    }
+}
@@ -2,8 +2,11 @@ package com.example.worker_service.util;
 
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
+import org.springframework.web.client.HttpClientErrorException;
+import org.springframework.web.client.RestClientException;
 import org.springframework.web.client.RestTemplate;
 
+import com.example.worker_service.exception.FileUpdateException;
 import com.example.worker_service.model.dto.FileJob;
 import com.example.worker_service.model.dto.FileUpdateRequest;
 
@@ -19,11 +22,20 @@ public class UpdateInternalUtils {
     @Value("${file.service.url}")
     private String fileServiceUrl;
 
+    /**
+     * Report a job's outcome to file-service.
+     *
+     * @throws FileUpdateException if file-service did not accept the update, so the
+     *         job stays pending and is redelivered rather than acknowledged
+     */
     public void updateInternal(FileJob job, FileUpdateRequest update) {
         try {
             restTemplate.postForObject(fileServiceUrl + "/internal/update", update, Void.class);
-        } catch (Exception ex) {
-            log.error("Failed to update FileService for PDF fileId {}: {}", job.getFileId(), ex.getMessage(), ex);
+        } catch (HttpClientErrorException.NotFound ex) {
+            // Deleted while the job ran; a retry would find it gone as well
+            log.warn("File {} no longer exists, dropping its {} update", job.getFileId(), update.getStatus());
+        } catch (RestClientException ex) {
+            throw new FileUpdateException("Failed to update FileService for fileId " + job.getFileId(), ex);
         }
     }
 }
@@ -1,18 +1,31 @@
 package com.example.worker_service.util;
 
+import java.awt.Graphics2D;
 import java.awt.image.BufferedImage;
-import java.io.ByteArrayInputStream;
-import java.io.ByteArrayOutputStream;
-import java.io.InputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Path;
 import java.util.*;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
 
 import javax.imageio.ImageIO;
+import javax.imageio.ImageReadParam;
+import javax.imageio.ImageReader;
+import javax.imageio.stream.FileImageInputStream;
+import javax.imageio.stream.ImageInputStream;
+import javax.imageio.stream.ImageOutputStream;
+import javax.imageio.stream.MemoryCacheImageOutputStream;
 
 import org.imgscalr.Scalr;
 import org.springframework.stereotype.Component;
 
 import com.example.worker_service.exception.ImageProcessingException;
+import com.example.worker_service.model.dto.FileJob;
 import com.example.worker_service.model.dto.FileVariantDto;
+import com.example.worker_service.model.dto.UploadedObject;
+import com.example.worker_service.service.JobExecutor;
 import com.example.worker_service.service.MinioStorageService;
 
 import lombok.RequiredArgsConstructor;
@@ -24,58 +37,197 @@ import lombok.extern.slf4j.Slf4j;
 public class VariantUtils {
 
     private final MinioStorageService minioStorageService;
+    private final JobExecutor jobExecutor;
+    private final BlockingQueue<EncodeBuffer> buffers = new ArrayBlockingQueue<>(POOLED_BUFFERS);
 
     private static final Map<String, Integer> VARIANT_SIZES = Map.of(
             "medium", 800,
             "thumbnail", 200);
+    private static final int POOLED_BUFFERS = 16;
+    private static final int BUFFER_SIZE = 256 * 1024;
+    private static final int MAX_POOLED_CAPACITY = 4 * 1024 * 1024;
+    private static final int LARGEST_VARIANT = Collections.max(VARIANT_SIZES.values());
+
+    /** Variants from largest to smallest, each resized from the one before it. */
+    private static final List<Map.Entry<String, Integer>> RESIZE_PLAN = VARIANT_SIZES.entrySet().stream()
+            .sorted(Map.Entry.<String, Integer>comparingByValue().reversed())
+            .toList();
+
+    /**
+     * Decode an image file at no more than about twice the largest variant size.
+     * Dimensions come from the reader's header, and subsampling happens while
+     * decoding, so peak heap follows the variant sizes rather than the upload: a
+     * 100-megapixel PNG no longer needs 400 MB just to produce an 800px variant.
+     */
+    public static BufferedImage readSubsampled(Path file) throws IOException {
+        try (ImageInputStream input = new FileImageInputStream(file.toFile())) {
+            ImageReader reader = readerFor(input);
+            try {
+                int step = subsamplingStep(reader.getWidth(0), reader.getHeight(0));
+
+                ImageReadParam param = reader.getDefaultReadParam();
+                param.setSourceSubsampling(step, step, 0, 0);
+                return reader.read(0, param);
+            } finally {
+                reader.dispose();
+            }
+        }
+    }
+
+    /**
+     * Peak heap for turning this image file into variants, from its header alone:
+     * the subsampled decode plus the cascade's resize and encode buffers.
+     */
+    public static long estimateFootprint(Path file) throws IOException {
+        try (ImageInputStream input = new FileImageInputStream(file.toFile())) {
+            ImageReader reader = readerFor(input);
+            try {
+                int width = reader.getWidth(0);
+                int height = reader.getHeight(0);
+                int step = subsamplingStep(width, height);
+                long decoded = pixelBytes((width + step - 1) / step, (height + step - 1) / step);
+                return estimateFootprint(decoded);
+            } finally {
+                reader.dispose();
+            }
+        }
+    }
+
+    /**
+     * Peak heap for producing variants from an image of {@code decodedBytes}: the
+     * image itself, a flattening copy of about the same size in the worst case, and
+     * the largest variant with its encode buffer.
+     */
+    public static long estimateFootprint(long decodedBytes) {
+        return 2 * decodedBytes + 2 * pixelBytes(LARGEST_VARIANT, LARGEST_VARIANT);
+    }
+
+    /** Heap for a decoded image of this size, at four bytes per pixel. */
+    public static long pixelBytes(long width, long height) {
+        return width * height * 4;
+    }
+
+    private static ImageReader readerFor(ImageInputStream input) throws IOException {
+        Iterator<ImageReader> readers = ImageIO.getImageReaders(input);
+        if (!readers.hasNext()) {
+            throw new ImageProcessingException("Unsupported image format");
+        }
+        ImageReader reader = readers.next();
+        reader.setInput(input, true, true);
+        return reader;
+    }
+
+    private static int subsamplingStep(int width, int height) {
+        return Math.max(1, Math.max(width, height) / (2 * LARGEST_VARIANT));
+    }
 
     /**
      * Generate and upload all variants for a given image (BufferedImage).
+     *
+     * Targets are resized largest first and each smaller one is derived from the
+     * previous result instead of the original, so only the first step touches the
+     * full decode. Encoding and upload of a variant overlap with resizing the next.
      */
-    public List<FileVariantDto> generateImageVariants(String objectKey, BufferedImage original) {
-        List<FileVariantDto> variants = new ArrayList<>();
+    public List<FileVariantDto> generateImageVariants(FileJob job, BufferedImage original) {
+        String objectKey = job.getObjectKey();
+        String variantObjectKey = VariantUtils.replaceExtension(objectKey, "png");
 
         try {
-            for (Map.Entry<String, Integer> entry : VARIANT_SIZES.entrySet()) {
-                String variantKey = entry.getKey();
-                int size = entry.getValue();
-
-                BufferedImage resized = Scalr.resize(original, size);
-                BufferedImage rgb = new BufferedImage(resized.getWidth(), resized.getHeight(),
-                        BufferedImage.TYPE_INT_RGB);
-                rgb.getGraphics().drawImage(resized, 0, 0, null);
-                String variantObjectKey = VariantUtils.replaceExtension(objectKey, "png");
-
-                ByteArrayOutputStream baos = new ByteArrayOutputStream();
-                ImageIO.write(rgb, "png", baos);
-                try (InputStream is = new ByteArrayInputStream(baos.toByteArray())) {
-                    minioStorageService.uploadVariantStream(is, baos.size(), variantObjectKey, variantKey, "image/png");
-                }
-
-                variants.add(buildVariantDto(variantObjectKey, variantKey));
+            List<CompletableFuture<FileVariantDto>> uploads = new ArrayList<>();
+            CompletableFuture<BufferedImage> source = CompletableFuture.completedFuture(original);
+            for (Map.Entry<String, Integer> step : RESIZE_PLAN) {
+                String variantKey = step.getKey();
+                int size = step.getValue();
+
+                source = source.thenApplyAsync(image -> resizeToRgb(image, size), jobExecutor.cpu());
+                uploads.add(source
+                        .thenApplyAsync(image -> encodePng(image, borrowBuffer()), jobExecutor.cpu())
+                        .thenApplyAsync(png -> uploadPng(png, variantObjectKey, variantKey), jobExecutor.io()));
             }
 
-            // Original
-            variants.add(buildVariantDto(objectKey, "original"));
+            List<FileVariantDto> variants = new ArrayList<>(uploads.stream().map(CompletableFuture::join).toList());
+
+            // Original; its size travels with the job except for jobs queued before it did
+            long originalSize = job.getSize() != null
+                    ? job.getSize()
+                    : minioStorageService.getSize(objectKey, "original");
+            variants.add(buildVariantDto(objectKey, "original", originalSize));
+            return variants;
         } catch (Exception e) {
             throw new ImageProcessingException("Failed to generate variants for " + objectKey, e);
         }
+    }
+
+    /**
+     * Scale to fit {@code size}. Scalr already returns opaque sources as INT_RGB, so
+     * the flattening copy only happens for images with alpha, and only on the first
+     * step of the cascade.
+     */
+    static BufferedImage resizeToRgb(BufferedImage source, int size) {
+        BufferedImage resized = Scalr.resize(source, size);
+        if (resized.getType() == BufferedImage.TYPE_INT_RGB) {
+            return resized;
+        }
+
+        BufferedImage rgb = new BufferedImage(resized.getWidth(), resized.getHeight(),
+                BufferedImage.TYPE_INT_RGB);
+        Graphics2D g = rgb.createGraphics();
+        g.drawImage(resized, 0, 0, null);
+        g.dispose();
+        resized.flush();
+        return rgb;
+    }
+
+    /**
+     * Encode straight into {@code into}. The explicit memory cache keeps ImageIO from
+     * spilling to a temp file, and the PNG writer flushes it chunk by chunk.
+     */
+    static EncodeBuffer encodePng(BufferedImage image, EncodeBuffer into) {
+        try (ImageOutputStream out = new MemoryCacheImageOutputStream(into)) {
+            ImageIO.write(image, "png", out);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return into;
+    }
 
-        return variants;
+    private FileVariantDto uploadPng(EncodeBuffer png, String variantObjectKey, String variantKey) {
+        try {
+            UploadedObject uploaded = minioStorageService.uploadVariantStream(png.asInputStream(), png.size(),
+                    variantObjectKey, variantKey, "image/png");
+            log.debug("Stored {} ({} bytes, {}, etag {})", uploaded.objectKey(), uploaded.size(),
+                    uploaded.contentType(), uploaded.etag());
+            return buildVariantDto(variantObjectKey, variantKey, uploaded.size());
+        } finally {
+            returnBuffer(png);
+        }
+    }
+
+    private EncodeBuffer borrowBuffer() {
+        EncodeBuffer buffer = buffers.poll();
+        return buffer != null ? buffer : new EncodeBuffer(BUFFER_SIZE);
+    }
+
+    /** Unusually large buffers are dropped rather than pinned in the pool. */
+    private void returnBuffer(EncodeBuffer buffer) {
+        if (buffer.capacity() <= MAX_POOLED_CAPACITY) {
+            buffer.reset();
+            buffers.offer(buffer);
+        }
     }
 
     /**
      * Generate and upload image variants from a video thumbnail image file.
      */
-    public List<FileVariantDto> generateVideoThumbnailVariants(String objectKey, BufferedImage thumbnail) {
-        return generateImageVariants(objectKey, thumbnail);
+    public List<FileVariantDto> generateVideoThumbnailVariants(FileJob job, BufferedImage thumbnail) {
+        return generateImageVariants(job, thumbnail);
     }
 
     /**
-     * Build FileVariantDto with URL, size, and transform info.
+     * Build FileVariantDto with URL, size, and transform info. The size is what was
+     * uploaded, so no HEAD request is needed to learn it.
      */
-    private FileVariantDto buildVariantDto(String objectKey, String variantKey) {
-        long size = minioStorageService.getSize(objectKey, variantKey);
+    private FileVariantDto buildVariantDto(String objectKey, String variantKey, long size) {
         String url = minioStorageService.buildUrl(objectKey, variantKey);
 
         Map<String, Object> transform = variantKey.equals("original")
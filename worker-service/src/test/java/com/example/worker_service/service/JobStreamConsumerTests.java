@@ -0,0 +1,170 @@
+package com.example.worker_service.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.client.ExpectedCount.manyTimes;
+import static org.springframework.test.web.client.match.MockRestRequestMatchers.method;
+import static org.springframework.test.web.client.match.MockRestRequestMatchers.requestTo;
+import static org.springframework.test.web.client.response.MockRestResponseCreators.withServerError;
+import static org.springframework.test.web.client.response.MockRestResponseCreators.withSuccess;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.Timeout;
+import org.springframework.data.redis.connection.lettuce.LettuceConnectionFactory;
+import org.springframework.data.redis.connection.stream.PendingMessagesSummary;
+import org.springframework.data.redis.connection.stream.StreamRecords;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.http.HttpMethod;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.test.web.client.MockRestServiceServer;
+import org.springframework.test.web.client.ResponseActions;
+import org.springframework.web.client.RestTemplate;
+import org.testcontainers.containers.GenericContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import com.example.worker_service.config.RedisConfig;
+import com.example.worker_service.model.dto.FileJob;
+import com.example.worker_service.model.dto.FileUpdateRequest;
+import com.example.worker_service.model.enums.FileStatus;
+import com.example.worker_service.model.enums.JobType;
+import com.example.worker_service.util.UpdateInternalUtils;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+/**
+ * Publishes jobs with XADD the way file-service's outbox relay does and checks that
+ * the consumer group delivers them to a worker, acknowledging only once file-service
+ * has accepted the outcome. Needs a real Redis, so it is skipped where Docker is unavailable.
+ */
+@Testcontainers(disabledWithoutDocker = true)
+@Timeout(60)
+class JobStreamConsumerTests {
+    private static final String STREAM = "image:variant:queue";
+    private static final String FILE_SERVICE = "http://file-service";
+
+    @Container
+    static GenericContainer<?> redis = new GenericContainer<>("redis:7-alpine").withExposedPorts(6379);
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final BlockingQueue<FileJob> processed = new LinkedBlockingQueue<>();
+
+    private LettuceConnectionFactory connectionFactory;
+    private StringRedisTemplate redisTemplate;
+    private JobExecutor jobExecutor;
+    private JobStreamConsumer consumer;
+    private MockRestServiceServer fileService;
+
+    @BeforeEach
+    void setUp() {
+        connectionFactory = new LettuceConnectionFactory(redis.getHost(), redis.getMappedPort(6379));
+        connectionFactory.afterPropertiesSet();
+        connectionFactory.start();
+        redisTemplate = new StringRedisTemplate(connectionFactory);
+        redisTemplate.execute((RedisCallback<Void>) connection -> {
+            connection.serverCommands().flushAll();
+            return null;
+        });
+
+        RestTemplate restTemplate = new RestTemplate();
+        fileService = MockRestServiceServer.bindTo(restTemplate).build();
+        UpdateInternalUtils updateInternalUtils = new UpdateInternalUtils(restTemplate);
+        ReflectionTestUtils.setField(updateInternalUtils, "fileServiceUrl", FILE_SERVICE);
+
+        // Stands in for the real workers, which all report through updateInternal
+        JobWorker worker = new JobWorker() {
+            @Override
+            public JobType jobType() {
+                return JobType.IMAGE;
+            }
+
+            @Override
+            public void process(FileJob job) {
+                processed.add(job);
+                updateInternalUtils.updateInternal(job, FileUpdateRequest.builder()
+                        .fileId(job.getFileId())
+                        .status(FileStatus.COMPLETED.name())
+                        .variants(List.of())
+                        .build());
+            }
+        };
+
+        jobExecutor = new JobExecutor(new SimpleMeterRegistry(), 1, 1, 1, 1);
+        consumer = new JobStreamConsumer(new RedisConfig().jobStreamContainer(connectionFactory), redisTemplate,
+                objectMapper, updateInternalUtils, jobExecutor, List.of(worker),
+                "test-consumer", Duration.ofMinutes(15));
+        consumer.subscribe();
+    }
+
+    @AfterEach
+    void tearDown() throws InterruptedException {
+        consumer.unsubscribe();
+        jobExecutor.shutdown();
+        connectionFactory.destroy();
+    }
+
+    @Test
+    void publishedJobIsDeliveredAndAcknowledged() throws Exception {
+        expectUpdate().andRespond(withSuccess());
+        FileJob job = publish();
+
+        assertThat(processed.poll(10, TimeUnit.SECONDS)).isEqualTo(job);
+        assertThat(awaitPending(0)).isZero();
+    }
+
+    @Test
+    void jobStaysPendingWhenFileServiceRejectsTheUpdate() throws Exception {
+        expectUpdate().andRespond(withServerError());
+        FileJob job = publish();
+
+        assertThat(processed.poll(10, TimeUnit.SECONDS)).isEqualTo(job);
+        // Give a wrongful acknowledgement time to land before checking it did not
+        Thread.sleep(500);
+        assertThat(awaitPending(1)).isEqualTo(1);
+    }
+
+    private ResponseActions expectUpdate() {
+        return fileService.expect(manyTimes(), requestTo(FILE_SERVICE + "/internal/update"))
+                .andExpect(method(HttpMethod.POST));
+    }
+
+    private FileJob publish() throws Exception {
+        FileJob job = FileJob.builder()
+                .fileId(UUID.randomUUID())
+                .objectKey("owner/photo.png")
+                .mimeType("image/png")
+                .jobType(JobType.IMAGE)
+                .size(1024L)
+                .build();
+        redisTemplate.opsForStream().add(StreamRecords.newRecord()
+                .in(STREAM)
+                .ofMap(Map.of("job", objectMapper.writeValueAsString(job))));
+        return job;
+    }
+
+    /** @return the group's pending count once it reaches {@code expected}, or the last count seen */
+    private long awaitPending(long expected) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+        long pending;
+        do {
+            PendingMessagesSummary summary = redisTemplate.opsForStream().pending(STREAM, JobStreamConsumer.GROUP);
+            pending = summary == null ? -1 : summary.getTotalPendingMessages();
+            if (pending == expected) {
+                return pending;
+            }
+            Thread.sleep(100);
+        } while (System.nanoTime() - deadline < 0);
+        return pending;
+    }
+}
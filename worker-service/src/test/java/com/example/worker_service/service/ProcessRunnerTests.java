@@ -0,0 +1,135 @@
+package com.example.worker_service.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.Timeout;
+
+import com.example.worker_service.exception.ConversionFailedException;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+/**
+ * Drives {@link ProcessRunner} with small shell pipelines standing in for ffmpeg and
+ * LibreOffice. Children print their background child's pid first so the tests can
+ * check that the whole tree is gone, not just the direct child.
+ */
+@Timeout(60)
+class ProcessRunnerTests {
+    private static final Duration LONG = Duration.ofSeconds(30);
+
+    private SimpleMeterRegistry meterRegistry;
+    private ProcessRunner processRunner;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        processRunner = new ProcessRunner(meterRegistry, 2);
+    }
+
+    @Test
+    void wallClockTimeoutKillsTheProcessAndItsDescendants() {
+        AtomicLong grandchild = new AtomicLong();
+
+        assertThatThrownBy(() -> processRunner.run("sleeper", sh("sleep 30 & echo $!; wait"),
+                Duration.ofSeconds(1), LONG, line -> grandchild.compareAndSet(0, Long.parseLong(line))))
+                .isInstanceOf(ConversionFailedException.class)
+                .hasMessageContaining("wall-clock");
+
+        assertThat(grandchild.get()).isPositive();
+        assertGone(grandchild.get());
+        assertThat(meterRegistry.counter("jobs.process.killed", "name", "sleeper", "reason", "wall-clock").count())
+                .isEqualTo(1);
+    }
+
+    @Test
+    void cpuTimeoutKillsABusyProcess() {
+        assertThatThrownBy(() -> processRunner.run("spinner", sh("while :; do :; done"),
+                LONG, Duration.ofMillis(500), line -> { }))
+                .isInstanceOf(ConversionFailedException.class)
+                .hasMessageContaining("cpu");
+    }
+
+    @Test
+    void interruptKillsTheTreeAndPropagates() throws Exception {
+        AtomicLong grandchild = new AtomicLong();
+        CountDownLatch started = new CountDownLatch(1);
+        AtomicReference<Throwable> thrown = new AtomicReference<>();
+
+        Thread job = Thread.ofVirtual().start(() -> {
+            try {
+                processRunner.run("cancelled", sh("sleep 30 & echo $!; wait"), LONG, LONG, line -> {
+                    grandchild.set(Long.parseLong(line));
+                    started.countDown();
+                });
+            } catch (Exception e) {
+                thrown.set(e);
+            }
+        });
+
+        assertThat(started.await(10, TimeUnit.SECONDS)).isTrue();
+        job.interrupt();
+        job.join(TimeUnit.SECONDS.toMillis(10));
+
+        assertThat(thrown.get()).isInstanceOf(InterruptedException.class);
+        assertGone(grandchild.get());
+        assertThat(meterRegistry.counter("jobs.process.killed", "name", "cancelled", "reason", "cancelled").count())
+                .isEqualTo(1);
+    }
+
+    @Test
+    void chattyProcessRunsToCompletionAndKeepsTheTail() throws Exception {
+        AtomicLong lines = new AtomicLong();
+
+        // Far more than a pipe buffer holds; without draining the child would block on write
+        ProcessRunner.Result result = processRunner.run("chatty", sh("yes | head -n 500000; echo done"),
+                LONG, LONG, line -> lines.incrementAndGet());
+
+        assertThat(result.exitCode()).isZero();
+        assertThat(lines.get()).isEqualTo(500_001);
+        List<String> tail = result.outputTail().lines().toList();
+        assertThat(tail).hasSize(50).last().isEqualTo("done");
+    }
+
+    @Test
+    void exitCodeIsReportedWithoutThrowing() throws Exception {
+        ProcessRunner.Result result = processRunner.run("failing", sh("echo broken; exit 3"), LONG, LONG, line -> { });
+
+        assertThat(result.exitCode()).isEqualTo(3);
+        assertThat(result.outputTail()).isEqualTo("broken");
+    }
+
+    @Test
+    void presignedQueryStringsAreMaskedInTheTail() throws Exception {
+        String url = "http://minio:9000/files/clip.mp4?X-Amz-Credential=key&X-Amz-Signature=abc123";
+
+        ProcessRunner.Result result = processRunner.run("ffmpeg", sh("echo \"Opening '" + url + "' for reading\""),
+                LONG, LONG, line -> { });
+
+        assertThat(result.outputTail())
+                .isEqualTo("Opening 'http://minio:9000/files/clip.mp4?<redacted>' for reading")
+                .doesNotContain("X-Amz-Signature");
+    }
+
+    private static List<String> sh(String script) {
+        return List.of("sh", "-c", script);
+    }
+
+    /** Killing is asynchronous; give the OS a moment to reap the process. */
+    private static void assertGone(long pid) {
+        ProcessHandle.of(pid).ifPresent(handle -> {
+            CompletableFuture<ProcessHandle> exit = handle.onExit();
+            assertThat(exit).succeedsWithin(Duration.ofSeconds(5));
+        });
+    }
+}
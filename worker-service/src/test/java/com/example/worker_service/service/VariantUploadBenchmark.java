@@ -0,0 +1,138 @@
+package com.example.worker_service.service;
+
+import java.awt.image.BufferedImage;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.InetSocketAddress;
+import java.time.Duration;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import com.example.worker_service.model.dto.FileJob;
+import com.example.worker_service.model.dto.FileVariantDto;
+import com.example.worker_service.model.enums.JobType;
+import com.example.worker_service.util.VariantUtils;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import io.minio.MinioClient;
+
+/**
+ * Variant upload latency against a stand-in S3 endpoint that answers PUT and HEAD
+ * after a fixed delay, comparing the former flow (a HEAD per variant and for the
+ * original) with sizes carried forward from the upload and the job.
+ *
+ * Not part of the regular suite; run with {@code mvn test -Dtest=VariantUploadBenchmark}.
+ */
+class VariantUploadBenchmark {
+    private static final Duration LATENCY = Duration.ofMillis(20);
+    private static final int IMAGES = 20;
+
+    private HttpServer server;
+    private final AtomicInteger puts = new AtomicInteger();
+    private final AtomicInteger heads = new AtomicInteger();
+    private JobExecutor jobExecutor;
+    private MinioStorageService storage;
+    private VariantUtils variantUtils;
+
+    @BeforeEach
+    void startServer() throws IOException {
+        server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        server.setExecutor(Executors.newVirtualThreadPerTaskExecutor());
+        server.createContext("/", this::respond);
+        server.start();
+
+        MinioClient client = MinioClient.builder()
+                .endpoint("http://127.0.0.1:" + server.getAddress().getPort())
+                .credentials("benchmark", "benchmark")
+                .region("us-east-1")
+                .build();
+        storage = new MinioStorageService(client);
+        ReflectionTestUtils.setField(storage, "bucket", "files");
+        ReflectionTestUtils.setField(storage, "publicBaseUrl", "http://files.local");
+        jobExecutor = new JobExecutor(new SimpleMeterRegistry(), 8, 4, 2, 2);
+        variantUtils = new VariantUtils(storage, jobExecutor);
+    }
+
+    @AfterEach
+    void stopServer() throws InterruptedException {
+        server.stop(0);
+        jobExecutor.shutdown();
+    }
+
+    @Test
+    void compareStatPerVariantWithCarriedSizes() {
+        BufferedImage image = new BufferedImage(1600, 1200, BufferedImage.TYPE_INT_RGB);
+
+        run("warmup", image, false);
+        run("before: HEAD per variant and original", image, true);
+        run("after:  sizes carried forward         ", image, false);
+    }
+
+    private void run(String label, BufferedImage image, boolean statEveryVariant) {
+        puts.set(0);
+        heads.set(0);
+        long start = System.nanoTime();
+        for (int i = 0; i < IMAGES; i++) {
+            FileJob job = new FileJob(UUID.randomUUID(), "uploads/" + i + ".jpg", "image/jpeg", JobType.IMAGE,
+                    statEveryVariant ? null : 1_000_000L);
+            List<FileVariantDto> variants = variantUtils.generateImageVariants(job, image);
+            if (statEveryVariant) {
+                // The former buildVariantDto asked storage for every variant's size
+                variants.stream()
+                        .filter(v -> !"original".equals(v.getVariantKey()))
+                        .forEach(v -> storage.getSize(VariantUtils.replaceExtension(job.getObjectKey(), "png"),
+                                v.getVariantKey()));
+            }
+        }
+        double perImage = (System.nanoTime() - start) / 1e6 / IMAGES;
+        System.out.printf("%s %6.1f ms/image  %.1f PUT  %.1f HEAD per image (%d ms per request)%n",
+                label, perImage, puts.get() / (double) IMAGES, heads.get() / (double) IMAGES, LATENCY.toMillis());
+    }
+
+    private void respond(HttpExchange exchange) throws IOException {
+        try (exchange) {
+            Thread.sleep(LATENCY);
+            exchange.getResponseHeaders().add("ETag", "\"d41d8cd98f00b204e9800998ecf8427e\"");
+            switch (exchange.getRequestMethod()) {
+                case "PUT" -> {
+                    puts.incrementAndGet();
+                    try (InputStream body = exchange.getRequestBody()) {
+                        body.transferTo(OutputStreamSink.INSTANCE);
+                    }
+                    exchange.sendResponseHeaders(200, -1);
+                }
+                case "HEAD" -> {
+                    heads.incrementAndGet();
+                    exchange.getResponseHeaders().add("Content-Length", "1024");
+                    exchange.getResponseHeaders().add("Content-Type", "image/png");
+                    exchange.getResponseHeaders().add("Last-Modified", "Thu, 01 Jan 2026 00:00:00 GMT");
+                    exchange.sendResponseHeaders(200, -1);
+                }
+                default -> exchange.sendResponseHeaders(405, -1);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static final class OutputStreamSink extends java.io.OutputStream {
+        static final OutputStreamSink INSTANCE = new OutputStreamSink();
+
+        @Override
+        public void write(int b) {
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) {
+        }
+    }
+}
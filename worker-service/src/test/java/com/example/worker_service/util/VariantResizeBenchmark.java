@@ -0,0 +1,118 @@
+package com.example.worker_service.util;
+
+import java.awt.Color;
+import java.awt.GradientPaint;
+import java.awt.Graphics2D;
+import java.awt.image.BufferedImage;
+import java.lang.management.ManagementFactory;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import org.imgscalr.Scalr;
+
+/**
+ * Compares the former variant pipeline (every size resized from the original and
+ * copied to RGB, one after another) with the cascaded one in {@link VariantUtils}.
+ * Uploads are left out; this measures the CPU side only.
+ *
+ * Allocation is counted on the calling thread, so those runs are sequential. The
+ * last run shows wall time with encodes overlapping on a core-sized pool.
+ *
+ * Not a test: run {@link #main} after {@code mvn test-compile}.
+ */
+public class VariantResizeBenchmark {
+    private static final List<Integer> SIZES = List.of(800, 200);
+    private static final int WARMUP = 5;
+    private static final int ITERATIONS = 20;
+
+    public static void main(String[] args) {
+        int width = args.length > 0 ? Integer.parseInt(args[0]) : 3000;
+        int height = args.length > 1 ? Integer.parseInt(args[1]) : 2000;
+
+        for (int type : new int[] { BufferedImage.TYPE_3BYTE_BGR, BufferedImage.TYPE_INT_ARGB }) {
+            BufferedImage original = sample(width, height, type);
+            System.out.printf("%dx%d %s%n", width, height,
+                    type == BufferedImage.TYPE_INT_ARGB ? "ARGB" : "BGR");
+            measure("  before     ", () -> before(original));
+            measure("  cascaded   ", () -> cascaded(original));
+        }
+
+        ExecutorService pool = Executors.newFixedThreadPool(Runtime.getRuntime().availableProcessors());
+        try {
+            BufferedImage original = sample(width, height, BufferedImage.TYPE_3BYTE_BGR);
+            measure("  cascaded, parallel encode (allocation excludes pool threads)",
+                    () -> cascadedParallel(original, pool));
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    private static int before(BufferedImage original) {
+        int bytes = 0;
+        for (int size : SIZES) {
+            BufferedImage resized = Scalr.resize(original, size);
+            BufferedImage rgb = new BufferedImage(resized.getWidth(), resized.getHeight(),
+                    BufferedImage.TYPE_INT_RGB);
+            rgb.getGraphics().drawImage(resized, 0, 0, null);
+            bytes += VariantUtils.encodePng(rgb, new EncodeBuffer(256 * 1024)).size();
+        }
+        return bytes;
+    }
+
+    private static int cascaded(BufferedImage original) {
+        int bytes = 0;
+        BufferedImage source = original;
+        for (int size : SIZES) {
+            source = VariantUtils.resizeToRgb(source, size);
+            bytes += VariantUtils.encodePng(source, new EncodeBuffer(256 * 1024)).size();
+        }
+        return bytes;
+    }
+
+    private static int cascadedParallel(BufferedImage original, ExecutorService pool) {
+        CompletableFuture<BufferedImage> source = CompletableFuture.completedFuture(original);
+        CompletableFuture<Integer> bytes = CompletableFuture.completedFuture(0);
+        for (int size : SIZES) {
+            source = source.thenApplyAsync(image -> VariantUtils.resizeToRgb(image, size), pool);
+            CompletableFuture<Integer> encoded = source.thenApplyAsync(
+                    image -> VariantUtils.encodePng(image, new EncodeBuffer(256 * 1024)).size(), pool);
+            bytes = bytes.thenCombine(encoded, Integer::sum);
+        }
+        return bytes.join();
+    }
+
+    private static void measure(String label, java.util.function.IntSupplier run) {
+        com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        for (int i = 0; i < WARMUP; i++) {
+            run.getAsInt();
+        }
+
+        long allocated = threads.getCurrentThreadAllocatedBytes();
+        long start = System.nanoTime();
+        for (int i = 0; i < ITERATIONS; i++) {
+            run.getAsInt();
+        }
+        long elapsed = System.nanoTime() - start;
+        allocated = threads.getCurrentThreadAllocatedBytes() - allocated;
+
+        System.out.printf("%s %7.1f ms/image %8.1f MB allocated/image%n", label,
+                elapsed / 1e6 / ITERATIONS, allocated / 1024.0 / 1024.0 / ITERATIONS);
+    }
+
+    private static BufferedImage sample(int width, int height, int type) {
+        BufferedImage image = new BufferedImage(width, height, type);
+        Graphics2D g = image.createGraphics();
+        g.setPaint(new GradientPaint(0, 0, Color.ORANGE, width, height, Color.BLUE));
+        g.fillRect(0, 0, width, height);
+        Random random = new Random(42);
+        for (int i = 0; i < 2_000; i++) {
+            g.setColor(new Color(random.nextInt(0x1000000)));
+            g.fillOval(random.nextInt(width), random.nextInt(height), 40, 40);
+        }
+        g.dispose();
+        return image;
+    }
+}